@@ -1,23 +1,36 @@
 package oop.libapp;
 
+import oop.libapp.config.HibernateCacheConfig;
 import oop.libapp.message.ErrorMessage;
 import oop.libapp.message.IErrorMessage;
+import oop.libapp.security.password.BoundedPasswordEncoder;
+import oop.libapp.security.ratelimit.RateLimiter;
 import oop.libapp.security.secret.ISecretGenerator;
 import oop.libapp.security.secret.SecretGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Scope;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @SpringBootApplication
+@EnableScheduling
+@Import(HibernateCacheConfig.class)
 public class SpringLibraryApp {
 
+    private static final int PASSWORD_HASHING_QUEUE_CAPACITY = 64;
+
     @Bean
     @Scope(scopeName = WebApplicationContext.SCOPE_REQUEST)
     public IErrorMessage errorMessage() {
@@ -29,11 +42,47 @@ public class SpringLibraryApp {
         return new SecretGenerator(32);
     }
 
+    // hashing gets at most half of the cores, the rest stays free for regular requests
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, PASSWORD_HASHING_QUEUE_CAPACITY);
+    }
+
+    // stores asynchronously registered users once their password is hashed, sized like the
+    // hashing pool so that it keeps up with it
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService userPersistenceExecutor() {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-persistence-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // the first matching rule applies; the endpoints hashing passwords are limited the hardest.
+    // API requests are matched after their token is verified, so every user has their own buckets
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public RateLimiter rateLimiter() {
+        return new RateLimiter()
+                .addRule(HttpMethod.POST, "/users/get-token", 10, 0.5)
+                .addRule(HttpMethod.POST, "/users/revoke-token", 10, 0.5)
+                .addRule(HttpMethod.POST, "/users/register", 5, 0.1)
+                .addRule(HttpMethod.POST, "/users/register/bulk", 2, 0.05)
+                .addRule(HttpMethod.GET, "/api/**", 200, 50)
+                .addRule(null, "/api/**", 50, 10);
     }
 
+    // API requests are matched per client IP before their token is verified, which keeps floods of
+    // bad tokens away from the verification. Several users may share an address behind NAT or a
+    // proxy, so the limit is well above what a single user is allowed
+    @Bean
+    public RateLimiter clientRateLimiter() {
+        return new RateLimiter()
+                .addRule(null, "/api/**", 1000, 250);
+    }
 
     public static void main(String[] args) {
         SpringApplication.run(SpringLibraryApp.class, args);
@@ -1,7 +1,10 @@
 package oop.libapp.author;
 
 import oop.libapp.exception.FailedFieldValidationException;
+import oop.libapp.exception.InvalidContinuationTokenException;
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -30,14 +33,18 @@ public class AuthorController {
     }
 
     @RequestMapping(value = "api/authors", method = RequestMethod.GET)
-    public ResponseEntity<List<Author>> getAuthors(@RequestParam(value = "name", required = false) String name) {
-        List<Author> authors;
+    public ResponseEntity<List<Author>> getAuthors(@RequestParam(value = "name", required = false) String name,
+                                                   @RequestParam(value = "continuation", required = false) String continuation,
+                                                   @RequestParam(value = "limit", required = false) Integer limit)
+            throws InvalidContinuationTokenException {
+        KeysetRequest page = KeysetRequest.of(continuation, limit);
+        KeysetPage<Author> authors;
         if (name == null) {
-            authors = authorService.findAll();
+            authors = authorService.findAll(page);
         } else {
-            authors = authorService.findAllByNameContaining(name);
+            authors = authorService.findAllByNameContaining(name, page);
         }
-        return new ResponseEntity<>(authors, HttpStatus.OK);
+        return authors.toResponseEntity();
     }
 
     @RequestMapping(value = "api/authors/{id}", method = RequestMethod.GET)
@@ -0,0 +1,27 @@
+package oop.libapp.author;
+
+import oop.libapp.util.TrigramIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+@Component
+public class AuthorNameIndex extends TrigramIndex {
+
+    private final AuthorRepository authorRepository;
+
+    @Autowired
+    public AuthorNameIndex(AuthorRepository authorRepository) {
+        this.authorRepository = authorRepository;
+    }
+
+    // the first build completes before the server accepts requests, names saved or deleted by
+    // another node are found here after the next rebuild
+    @PostConstruct
+    @Scheduled(initialDelayString = REBUILD_INTERVAL_MS, fixedDelayString = REBUILD_INTERVAL_MS)
+    public void rebuild() {
+        rebuild(authorRepository::findAllIdsAndNames);
+    }
+}
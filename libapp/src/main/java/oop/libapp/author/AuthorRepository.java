@@ -1,9 +1,26 @@
 package oop.libapp.author;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
 public interface AuthorRepository extends JpaRepository<Author, Long> {
     List<Author> findAllByNameContaining(String name);
+
+    // catalog pages change rarely, the query cache serves them until the table is written to
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Author> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("select a.id, a.name from Author a")
+    List<Object[]> findAllIdsAndNames();
+
+    // the names have to be lower case, they match regardless of case like MySQL's default collation
+    @Query("select a.id, a.name from Author a where lower(a.name) in :names")
+    List<Object[]> findIdsAndNamesByLowerCaseNameIn(@Param("names") Collection<String> names);
 }
@@ -1,35 +1,56 @@
 package oop.libapp.author;
 
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.CachedEntityLoader;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class AuthorService implements IAuthorService {
 
     private AuthorRepository authorRepository;
+    private AuthorNameIndex authorNameIndex;
+    private CachedEntityLoader cachedEntityLoader;
 
     @Autowired
-    public AuthorService(AuthorRepository authorRepository) {
+    public AuthorService(AuthorRepository authorRepository, AuthorNameIndex authorNameIndex,
+                         CachedEntityLoader cachedEntityLoader) {
         this.authorRepository = authorRepository;
+        this.authorNameIndex = authorNameIndex;
+        this.cachedEntityLoader = cachedEntityLoader;
     }
 
     @Override
-    public List<Author> findAll() {
-        return authorRepository.findAll();
+    public KeysetPage<Author> findAll(KeysetRequest page) {
+        List<Author> authors = authorRepository.findAllByIdGreaterThanOrderByIdAsc(page.getAfterId(), page.toPageable());
+        return KeysetPage.of(authors, page, Author::getId);
     }
 
     @Override
-    public List<Author> findAllByNameContaining(String name) {
-        return authorRepository.findAllByNameContaining(name);
+    public KeysetPage<Author> findAllByNameContaining(String name, KeysetRequest page) {
+        List<Long> ids = page.slice(authorNameIndex.search(name));
+        if (ids.isEmpty()) {
+            return KeysetPage.lastPage(new ArrayList<>());
+        }
+        List<Author> authors = authorRepository.findAllById(ids);
+        authors.sort(Comparator.comparing(Author::getId));
+        return KeysetPage.of(authors, page, Author::getId);
+    }
+
+    @Override
+    public List<Long> findIdsByNameContaining(String name) {
+        return authorNameIndex.search(name);
     }
 
     @Override
     public Author save(Author author) {
-        return authorRepository.save(author);
+        Author savedAuthor = authorRepository.save(author);
+        authorNameIndex.put(savedAuthor.getId(), savedAuthor.getName());
+        return savedAuthor;
     }
 
     @Override
@@ -42,12 +63,24 @@ public class AuthorService implements IAuthorService {
         }
     }
 
+    /**
+     * Loads all the given authors and returns them in the order of the ids, reading the ones in the
+     * second-level cache from it. If any id does not exist, all of the missing ids are reported together.
+     */
+    @Override
+    public List<Author> findAllById(Collection<Long> ids) throws ResourceNotFoundException {
+        return cachedEntityLoader.findAllById(Author.class, ids, Author::getId);
+    }
+
     @Override
     public boolean deleteById(Long id) throws ResourceNotFoundException {
         boolean exists = authorRepository.existsById(id);
         if (exists) {
             authorRepository.deleteById(id);
             exists = authorRepository.existsById(id);
+            if (!exists) {
+                authorNameIndex.remove(id);
+            }
         } else {
             throw new ResourceNotFoundException("Author with this id not found");
         }
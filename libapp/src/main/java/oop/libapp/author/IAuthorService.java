@@ -1,14 +1,19 @@
 package oop.libapp.author;
 
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface IAuthorService {
-    List<Author> findAll();
-    List<Author> findAllByNameContaining(String name);
+    KeysetPage<Author> findAll(KeysetRequest page);
+    KeysetPage<Author> findAllByNameContaining(String name, KeysetRequest page);
+    List<Long> findIdsByNameContaining(String name);
     Author save(Author author);
     Author findById(Long id) throws ResourceNotFoundException;
+    List<Author> findAllById(Collection<Long> ids) throws ResourceNotFoundException;
     boolean deleteById(Long id) throws ResourceNotFoundException;
 }
 
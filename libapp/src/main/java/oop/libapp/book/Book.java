@@ -3,19 +3,46 @@ package oop.libapp.book;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import oop.libapp.author.Author;
 import oop.libapp.genre.Genre;
+import oop.libapp.util.KeysetRequest;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Listings load books through the {@value #LISTING_GRAPH} graph, which joins the inverse
+ * {@link #bookInfo} side in the same select. Hibernate cannot proxy that side, so without
+ * the join it issues one select per book even though the field is never serialized.
+ * The collections are batch fetched instead, since joining them would defeat the page limit.
+ */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Book.LISTING_GRAPH, attributeNodes = @NamedAttributeNode("bookInfo"))
 public class Book {
 
+    public static final String LISTING_GRAPH = "Book.listing";
+
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
     private String title;
 
+    // Both counters are written only by the conditional updates in BookRepository, so a
+    // stale Book saved through the entity manager can never overwrite them. setCopies only
+    // applies to a new book, the copies of a saved one are changed by IBookService.setCopies.
+    @Column(nullable = false, updatable = false)
+    private Integer copies = 1;
+
+    @Column(nullable = false, updatable = false)
+    private Integer availableCopies = 1;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize(size = KeysetRequest.DEFAULT_LIMIT)
     @ManyToMany(cascade = CascadeType.MERGE)
     @JoinTable(
             name = "book_authors",
@@ -24,6 +51,8 @@ public class Book {
     )
     private Set<Author> authors;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @BatchSize(size = KeysetRequest.DEFAULT_LIMIT)
     @ManyToMany(cascade = CascadeType.MERGE)
     @JoinTable(
             name = "book_genres",
@@ -60,6 +89,23 @@ public class Book {
         this.title = title;
     }
 
+    public Integer getCopies() {
+        return copies;
+    }
+
+    public void setCopies(Integer copies) {
+        this.copies = copies;
+        this.availableCopies = copies;
+    }
+
+    public Integer getAvailableCopies() {
+        return availableCopies;
+    }
+
+    public void setAvailableCopies(Integer availableCopies) {
+        this.availableCopies = availableCopies;
+    }
+
     public Set<Author> getAuthors() {
         return authors;
     }
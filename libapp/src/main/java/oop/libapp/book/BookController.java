@@ -1,11 +1,14 @@
 package oop.libapp.book;
 
 import oop.libapp.exception.FailedFieldValidationException;
+import oop.libapp.exception.InvalidContinuationTokenException;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.author.Author;
 import oop.libapp.genre.Genre;
 import oop.libapp.author.IAuthorService;
 import oop.libapp.genre.IGenreService;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -41,18 +44,40 @@ public class BookController {
     @RequestMapping(value = "api/books", method = RequestMethod.GET)
     public ResponseEntity<List<Book>> getBooks(@RequestParam(value = "title", required = false) String title,
                                                @RequestParam(value = "author", required = false) String author,
-                                               @RequestParam(value = "genre", required = false) String genre) {
-        List<Book> books;
+                                               @RequestParam(value = "genre", required = false) String genre,
+                                               @RequestParam(value = "continuation", required = false) String continuation,
+                                               @RequestParam(value = "limit", required = false) Integer limit)
+            throws InvalidContinuationTokenException {
+        KeysetRequest page = KeysetRequest.of(continuation, limit);
+        KeysetPage<Book> books;
         if (title != null) {
-            books = bookService.findAllByTitleContaining(title);
+            books = bookService.findAllByTitleContaining(title, page);
         } else if (author != null) {
-            books = bookService.findAllByAuthorsContainingName(author);
+            books = bookService.findAllByAuthorsContainingName(author, page);
         } else if (genre != null) {
-            books = bookService.findAllByGenresContainingName(genre);
+            books = bookService.findAllByGenresContainingName(genre, page);
         } else {
-            books = bookService.findAll();
+            books = bookService.findAll(page);
         }
-        return new ResponseEntity<>(books , HttpStatus.OK);
+        return books.toResponseEntity();
+    }
+
+    @RequestMapping(value = "api/books/search", method = RequestMethod.GET)
+    public ResponseEntity<List<Book>> searchBooks(BookSearchCriteria criteria,
+                                                  @RequestParam(value = "continuation", required = false) String continuation,
+                                                  @RequestParam(value = "limit", required = false) Integer limit)
+            throws InvalidContinuationTokenException {
+        KeysetRequest page = KeysetRequest.of(continuation, limit);
+        return bookService.search(criteria, page).toResponseEntity();
+    }
+
+    @RequestMapping(value = "api/books/summaries", method = RequestMethod.GET)
+    public ResponseEntity<List<BookSummary>> getBookSummaries(BookSearchCriteria criteria,
+                                                              @RequestParam(value = "continuation", required = false) String continuation,
+                                                              @RequestParam(value = "limit", required = false) Integer limit)
+            throws InvalidContinuationTokenException {
+        KeysetRequest page = KeysetRequest.of(continuation, limit);
+        return bookService.findSummaries(criteria, page).toResponseEntity();
     }
 
     @RequestMapping(value = "api/books", method = RequestMethod.POST)
@@ -61,19 +86,14 @@ public class BookController {
         if (result.hasErrors()) {
             throw new FailedFieldValidationException(result.getFieldErrors());
         }
-        Set<Author> bookAuthors = new HashSet<>();
-        List<Genre> bookGenres = new ArrayList<>();
-
-        for (Long authorId : newBookDto.getAuthorIds()) {
-            bookAuthors.add(authorService.findById(authorId));
-        }
-
-        for (Long genreId : newBookDto.getGenreIds()) {
-            bookGenres.add(genreService.findById(genreId));
-        }
+        Set<Author> bookAuthors = new HashSet<>(authorService.findAllById(newBookDto.getAuthorIds()));
+        List<Genre> bookGenres = genreService.findAllById(newBookDto.getGenreIds());
 
         // New Design Pattern Implementation
         Book book = factoryBook.getBook(newBookDto.getTitle(), bookAuthors, bookGenres);
+        if (newBookDto.getCopies() != null) {
+            book.setCopies(newBookDto.getCopies());
+        }
 
         Book savedBook = bookService.save(book);
         return new ResponseEntity<>(savedBook, HttpStatus.CREATED);
@@ -87,7 +107,7 @@ public class BookController {
 
     @RequestMapping(value = "api/books/{id}", method = RequestMethod.PATCH)
     public ResponseEntity<Book> patchBook(@PathVariable Long id, @Valid @RequestBody PatchBookDto patchBookDto, BindingResult result)
-        throws FailedFieldValidationException, ResourceNotFoundException {
+        throws FailedFieldValidationException, ResourceNotFoundException, BookNotAvailableException {
         if (result.hasErrors()) {
             throw new FailedFieldValidationException(result.getFieldErrors());
         }
@@ -95,6 +115,12 @@ public class BookController {
         String newTitle = patchBookDto.getTitle();
         List<Long> newAuthorIds = patchBookDto.getAuthorIds();
         List<Long> newGenreIds = patchBookDto.getGenreIds();
+        Integer newCopies = patchBookDto.getCopies();
+
+        // the counters are not saved with the entity, so they are changed before it is loaded
+        if (newCopies != null) {
+            bookService.setCopies(id, newCopies);
+        }
 
         Book book = bookService.findById(id);
 
@@ -103,19 +129,11 @@ public class BookController {
         }
 
         if (newAuthorIds != null) {
-            Set<Author> newAuthors = new HashSet<>();
-            for (Long authorId : newAuthorIds) {
-                newAuthors.add(authorService.findById(authorId));
-            }
-            book.setAuthors(newAuthors);
+            book.setAuthors(new HashSet<>(authorService.findAllById(newAuthorIds)));
         }
 
         if (newGenreIds != null) {
-            List<Genre> newGenres = new ArrayList<>();
-            for (Long genreId : newGenreIds) {
-                newGenres.add(genreService.findById(genreId));
-            }
-            book.setGenres(newGenres);
+            book.setGenres(genreService.findAllById(newGenreIds));
         }
 
         Book patchedBook = bookService.save(book);
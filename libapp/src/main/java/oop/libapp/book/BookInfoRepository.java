@@ -1,6 +1,31 @@
 package oop.libapp.book;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface BookInfoRepository extends JpaRepository<BookInfo, Long> {
+
+    @Query("select bi.id from BookInfo bi where " +
+            "(:language is null or lower(bi.language) = lower(:language)) and " +
+            "(:minYear is null or bi.publicationYear >= :minYear) and " +
+            "(:maxYear is null or bi.publicationYear <= :maxYear) and " +
+            "(:minPages is null or bi.numberOfPages >= :minPages) and " +
+            "(:maxPages is null or bi.numberOfPages <= :maxPages)")
+    List<Long> findIdsMatching(@Param("language") String language,
+                               @Param("minYear") Integer minYear, @Param("maxYear") Integer maxYear,
+                               @Param("minPages") Integer minPages, @Param("maxPages") Integer maxPages);
+
+    @Query("select bi.id from BookInfo bi where bi.id in :ids and " +
+            "(:language is null or lower(bi.language) = lower(:language)) and " +
+            "(:minYear is null or bi.publicationYear >= :minYear) and " +
+            "(:maxYear is null or bi.publicationYear <= :maxYear) and " +
+            "(:minPages is null or bi.numberOfPages >= :minPages) and " +
+            "(:maxPages is null or bi.numberOfPages <= :maxPages)")
+    List<Long> findIdsMatchingAmong(@Param("ids") Collection<Long> ids, @Param("language") String language,
+                                    @Param("minYear") Integer minYear, @Param("maxYear") Integer maxYear,
+                                    @Param("minPages") Integer minPages, @Param("maxPages") Integer maxPages);
 }
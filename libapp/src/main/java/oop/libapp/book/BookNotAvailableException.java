@@ -0,0 +1,8 @@
+package oop.libapp.book;
+
+public class BookNotAvailableException extends Exception {
+
+    public BookNotAvailableException(String msg) {
+        super(msg);
+    }
+}
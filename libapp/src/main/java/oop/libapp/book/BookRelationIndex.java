@@ -0,0 +1,176 @@
+package oop.libapp.book;
+
+import oop.libapp.author.Author;
+import oop.libapp.genre.Genre;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Precomputed author to books and genre to books adjacency, mirroring the
+ * book_authors and book_genres join tables, so that books of a set of authors or
+ * genres can be found without joining them in the database.
+ *
+ * Like {@link BookTitleIndex}, every node keeps its own copy, rebuilt every
+ * {@code libapp.search.index-rebuild-interval-ms} into fresh maps that are swapped in once
+ * complete, with the links changed meanwhile replayed into them.
+ */
+@Component
+public class BookRelationIndex {
+
+    private final BookRepository bookRepository;
+
+    private volatile Relations relations = new Relations();
+    // updates made while a rebuild is running, guarded by this
+    private List<Consumer<Relations>> updatesDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    @Autowired
+    public BookRelationIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    // the first build completes before the server accepts requests
+    @PostConstruct
+    @Scheduled(initialDelayString = BookTitleIndex.REBUILD_INTERVAL_MS, fixedDelayString = BookTitleIndex.REBUILD_INTERVAL_MS)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                updatesDuringRebuild = new ArrayList<>();
+            }
+
+            Relations rebuilt = new Relations();
+            try {
+                for (Object[] row : bookRepository.findAllBookAuthorIds()) {
+                    link((Long) row[0], (Long) row[1], rebuilt.authorsByBook, rebuilt.booksByAuthor);
+                }
+                for (Object[] row : bookRepository.findAllBookGenreIds()) {
+                    link((Long) row[0], (Long) row[1], rebuilt.genresByBook, rebuilt.booksByGenre);
+                }
+            } catch (RuntimeException ex) {
+                // the current maps stay in use, they already hold every update
+                synchronized (this) {
+                    updatesDuringRebuild = null;
+                }
+                throw ex;
+            }
+
+            synchronized (this) {
+                for (Consumer<Relations> update : updatesDuringRebuild) {
+                    update.accept(rebuilt);
+                }
+                updatesDuringRebuild = null;
+                relations = rebuilt;
+            }
+        }
+    }
+
+    public void put(Book book) {
+        List<Long> authorIds = new ArrayList<>();
+        if (book.getAuthors() != null) {
+            for (Author author : book.getAuthors()) {
+                authorIds.add(author.getId());
+            }
+        }
+        List<Long> genreIds = new ArrayList<>();
+        if (book.getGenres() != null) {
+            for (Genre genre : book.getGenres()) {
+                genreIds.add(genre.getId());
+            }
+        }
+        put(book.getId(), authorIds, genreIds);
+    }
+
+    public void put(Long bookId, Collection<Long> authorIds, Collection<Long> genreIds) {
+        List<Long> authorIdsCopy = new ArrayList<>(authorIds);
+        List<Long> genreIdsCopy = new ArrayList<>(genreIds);
+        update(relations -> relations.put(bookId, authorIdsCopy, genreIdsCopy));
+    }
+
+    public void remove(Long bookId) {
+        update(relations -> relations.remove(bookId));
+    }
+
+    private synchronized void update(Consumer<Relations> update) {
+        update.accept(relations);
+        if (updatesDuringRebuild != null) {
+            updatesDuringRebuild.add(update);
+        }
+    }
+
+    /**
+     * Returns the ids of all books written by any of the given authors, in ascending order.
+     */
+    public List<Long> findBookIdsByAuthorIds(Collection<Long> authorIds) {
+        return collect(authorIds, relations.booksByAuthor);
+    }
+
+    /**
+     * Returns the ids of all books belonging to any of the given genres, in ascending order.
+     */
+    public List<Long> findBookIdsByGenreIds(Collection<Long> genreIds) {
+        return collect(genreIds, relations.booksByGenre);
+    }
+
+    private static void link(Long bookId, Long otherId, Map<Long, Set<Long>> forward, Map<Long, Set<Long>> backward) {
+        forward.computeIfAbsent(bookId, id -> ConcurrentHashMap.newKeySet()).add(otherId);
+        backward.computeIfAbsent(otherId, id -> ConcurrentHashMap.newKeySet()).add(bookId);
+    }
+
+    private static void unlink(Long bookId, Map<Long, Set<Long>> forward, Map<Long, Set<Long>> backward) {
+        Set<Long> otherIds = forward.remove(bookId);
+        if (otherIds == null) {
+            return;
+        }
+        for (Long otherId : otherIds) {
+            Set<Long> bookIds = backward.get(otherId);
+            if (bookIds != null) {
+                bookIds.remove(bookId);
+                if (bookIds.isEmpty()) {
+                    backward.remove(otherId);
+                }
+            }
+        }
+    }
+
+    private static List<Long> collect(Collection<Long> keys, Map<Long, Set<Long>> adjacency) {
+        Set<Long> bookIds = new HashSet<>();
+        for (Long key : keys) {
+            Set<Long> ids = adjacency.get(key);
+            if (ids != null) {
+                bookIds.addAll(ids);
+            }
+        }
+        List<Long> result = new ArrayList<>(bookIds);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static class Relations {
+
+        private final Map<Long, Set<Long>> booksByAuthor = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> booksByGenre = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> authorsByBook = new ConcurrentHashMap<>();
+        private final Map<Long, Set<Long>> genresByBook = new ConcurrentHashMap<>();
+
+        private void put(Long bookId, Collection<Long> authorIds, Collection<Long> genreIds) {
+            remove(bookId);
+            for (Long authorId : authorIds) {
+                link(bookId, authorId, authorsByBook, booksByAuthor);
+            }
+            for (Long genreId : genreIds) {
+                link(bookId, genreId, genresByBook, booksByGenre);
+            }
+        }
+
+        private void remove(Long bookId) {
+            unlink(bookId, authorsByBook, booksByAuthor);
+            unlink(bookId, genresByBook, booksByGenre);
+        }
+    }
+}
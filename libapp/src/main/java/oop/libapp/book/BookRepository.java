@@ -1,18 +1,77 @@
 package oop.libapp.book;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-    @Query("select b from Book b join b.genres as genre where genre.name like :genreName")
-    List<Book> findAllByGenresNameLike(@Param("genreName") String genreName);
+    @EntityGraph(Book.LISTING_GRAPH)
+    List<Book> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 
-    @Query("select b from Book b join b.authors as author where author.name like :authorName")
-    List<Book> findAllByAuthorsNameLike(@Param("authorName") String authorName);
+    @EntityGraph(Book.LISTING_GRAPH)
+    List<Book> findAllByIdIn(Collection<Long> ids);
 
-    List<Book> findAllByTitleContaining(String title);
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.availableCopies = b.availableCopies - 1 where b.id = :id and b.availableCopies > 0")
+    int decrementAvailableCopies(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.availableCopies = b.availableCopies + 1 where b.id = :id and b.availableCopies < b.copies")
+    int incrementAvailableCopies(@Param("id") Long id);
+
+    // availableCopies is assigned first, MySQL evaluates the assignments of a single-table
+    // update from left to right and would otherwise see the new number of copies
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.availableCopies = b.availableCopies + (:copies - b.copies), b.copies = :copies " +
+           "where b.id = :id and b.copies - b.availableCopies <= :copies")
+    int updateCopies(@Param("id") Long id, @Param("copies") int copies);
+
+    @Query("select b.id from Book b where b.id > :afterId order by b.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select b.id, b.title from Book b where b.id in :ids order by b.id")
+    List<Object[]> findIdsAndTitlesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.id, author.id, author.name from Book b join b.authors as author " +
+           "where b.id in :ids order by b.id, author.name, author.id")
+    List<Object[]> findAuthorRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select b.id, genre.id, genre.name from Book b join b.genres as genre " +
+           "where b.id in :ids order by b.id, genre.name, genre.id")
+    List<Object[]> findGenreRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // rows are locked in id order, so concurrent batches cannot deadlock on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id, b.availableCopies from Book b where b.id in :ids order by b.id")
+    List<Object[]> findAvailableCopiesForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id, b.copies - b.availableCopies from Book b where b.id in :ids order by b.id")
+    List<Object[]> findCheckedOutCopiesForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.availableCopies = b.availableCopies - :count where b.id in :ids and b.availableCopies >= :count")
+    int decrementAvailableCopiesIn(@Param("ids") Collection<Long> ids, @Param("count") int count);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Book b set b.availableCopies = b.availableCopies + :count where b.id in :ids and b.availableCopies + :count <= b.copies")
+    int incrementAvailableCopiesIn(@Param("ids") Collection<Long> ids, @Param("count") int count);
+
+    @Query("select b.id, b.title from Book b")
+    List<Object[]> findAllIdsAndTitles();
+
+    @Query("select b.id, author.id from Book b join b.authors as author")
+    List<Object[]> findAllBookAuthorIds();
+
+    @Query("select b.id, genre.id from Book b join b.genres as genre")
+    List<Object[]> findAllBookGenreIds();
 }
@@ -0,0 +1,86 @@
+package oop.libapp.book;
+
+public class BookSearchCriteria {
+
+    private String title;
+    private String author;
+    private String genre;
+    private String language;
+    private Integer minPublicationYear;
+    private Integer maxPublicationYear;
+    private Integer minNumberOfPages;
+    private Integer maxNumberOfPages;
+
+    public boolean hasBookInfoPredicates() {
+        return language != null || minPublicationYear != null || maxPublicationYear != null
+                || minNumberOfPages != null || maxNumberOfPages != null;
+    }
+
+    public boolean isEmpty() {
+        return title == null && author == null && genre == null && !hasBookInfoPredicates();
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getGenre() {
+        return genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public Integer getMinPublicationYear() {
+        return minPublicationYear;
+    }
+
+    public void setMinPublicationYear(Integer minPublicationYear) {
+        this.minPublicationYear = minPublicationYear;
+    }
+
+    public Integer getMaxPublicationYear() {
+        return maxPublicationYear;
+    }
+
+    public void setMaxPublicationYear(Integer maxPublicationYear) {
+        this.maxPublicationYear = maxPublicationYear;
+    }
+
+    public Integer getMinNumberOfPages() {
+        return minNumberOfPages;
+    }
+
+    public void setMinNumberOfPages(Integer minNumberOfPages) {
+        this.minNumberOfPages = minNumberOfPages;
+    }
+
+    public Integer getMaxNumberOfPages() {
+        return maxNumberOfPages;
+    }
+
+    public void setMaxNumberOfPages(Integer maxNumberOfPages) {
+        this.maxNumberOfPages = maxNumberOfPages;
+    }
+}
@@ -0,0 +1,86 @@
+package oop.libapp.book;
+
+import oop.libapp.author.IAuthorService;
+import oop.libapp.genre.IGenreService;
+import oop.libapp.util.SortedIds;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Resolves a {@link BookSearchCriteria} to the ids of the matching books.
+ *
+ * Title, author and genre predicates are answered by the in-memory indexes, so their exact
+ * cardinality is known up front. They are intersected starting with the most selective one,
+ * and the search stops as soon as the intersection becomes empty. {@link BookInfo} predicates
+ * are the only part that needs the database: when the indexed candidates are few they are
+ * passed to the query as an id list, otherwise the query runs on its own and its result is
+ * intersected with the candidates.
+ */
+@Component
+public class BookSearchPlanner {
+
+    static final int MAX_CANDIDATES_IN_QUERY = 1000;
+
+    private BookTitleIndex bookTitleIndex;
+    private BookRelationIndex bookRelationIndex;
+    private IAuthorService authorService;
+    private IGenreService genreService;
+    private BookInfoRepository bookInfoRepository;
+
+    @Autowired
+    public BookSearchPlanner(BookTitleIndex bookTitleIndex, BookRelationIndex bookRelationIndex,
+                             IAuthorService authorService, IGenreService genreService,
+                             BookInfoRepository bookInfoRepository) {
+        this.bookTitleIndex = bookTitleIndex;
+        this.bookRelationIndex = bookRelationIndex;
+        this.authorService = authorService;
+        this.genreService = genreService;
+        this.bookInfoRepository = bookInfoRepository;
+    }
+
+    /**
+     * Returns the ids of the books matching every non-null predicate, in ascending order,
+     * or null if the criteria contain no predicate at all.
+     */
+    public long[] findIds(BookSearchCriteria criteria) {
+        List<long[]> indexed = new ArrayList<>();
+        if (criteria.getTitle() != null) {
+            indexed.add(SortedIds.of(bookTitleIndex.search(criteria.getTitle())));
+        }
+        if (criteria.getAuthor() != null) {
+            List<Long> authorIds = authorService.findIdsByNameContaining(criteria.getAuthor());
+            indexed.add(SortedIds.of(bookRelationIndex.findBookIdsByAuthorIds(authorIds)));
+        }
+        if (criteria.getGenre() != null) {
+            List<Long> genreIds = genreService.findIdsByNameContaining(criteria.getGenre());
+            indexed.add(SortedIds.of(bookRelationIndex.findBookIdsByGenreIds(genreIds)));
+        }
+
+        long[] candidates = null;
+        indexed.sort(Comparator.comparingInt(ids -> ids.length));
+        for (long[] ids : indexed) {
+            candidates = candidates == null ? ids : SortedIds.intersect(candidates, ids);
+            if (candidates.length == 0) {
+                return candidates;
+            }
+        }
+
+        if (!criteria.hasBookInfoPredicates()) {
+            return candidates;
+        }
+        if (candidates != null && candidates.length <= MAX_CANDIDATES_IN_QUERY) {
+            return SortedIds.of(bookInfoRepository.findIdsMatchingAmong(SortedIds.toList(candidates),
+                    criteria.getLanguage(),
+                    criteria.getMinPublicationYear(), criteria.getMaxPublicationYear(),
+                    criteria.getMinNumberOfPages(), criteria.getMaxNumberOfPages()));
+        }
+        long[] bookInfoIds = SortedIds.of(bookInfoRepository.findIdsMatching(criteria.getLanguage(),
+                criteria.getMinPublicationYear(), criteria.getMaxPublicationYear(),
+                criteria.getMinNumberOfPages(), criteria.getMaxNumberOfPages()));
+        return candidates == null ? bookInfoIds : SortedIds.intersect(candidates, bookInfoIds);
+    }
+}
@@ -1,20 +1,37 @@
 package oop.libapp.book;
 
+import oop.libapp.author.IAuthorService;
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.genre.IGenreService;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
+import oop.libapp.util.SortedIds;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class BookService implements IBookService {
 
     private BookRepository bookRepository;
+    private BookTitleIndex bookTitleIndex;
+    private BookRelationIndex bookRelationIndex;
+    private IAuthorService authorService;
+    private IGenreService genreService;
+    private BookSearchPlanner bookSearchPlanner;
 
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository, BookTitleIndex bookTitleIndex, BookRelationIndex bookRelationIndex,
+                       IAuthorService authorService, IGenreService genreService, BookSearchPlanner bookSearchPlanner) {
         this.bookRepository = bookRepository;
+        this.bookTitleIndex = bookTitleIndex;
+        this.bookRelationIndex = bookRelationIndex;
+        this.authorService = authorService;
+        this.genreService = genreService;
+        this.bookSearchPlanner = bookSearchPlanner;
     }
 
     @Override
@@ -23,6 +40,10 @@ public class BookService implements IBookService {
         if (exists) {
             bookRepository.deleteById(id);
             exists = bookRepository.existsById(id);
+            if (!exists) {
+                bookTitleIndex.remove(id);
+                bookRelationIndex.remove(id);
+            }
         } else {
             throw new ResourceNotFoundException("Book with this id not found");
         }
@@ -41,32 +62,186 @@ public class BookService implements IBookService {
 
     @Override
     public Book save(Book book) {
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        bookTitleIndex.put(savedBook.getId(), savedBook.getTitle());
+        bookRelationIndex.put(savedBook);
+        return savedBook;
     }
 
+    /**
+     * Takes one copy of the book with a single conditional update, which either claims a copy
+     * or matches no row, so concurrent checkouts can never hand out more copies than exist.
+     */
     @Override
-    public List<Book> findAll() {
-        return bookRepository.findAll();
+    @Transactional(rollbackFor = Exception.class)
+    public Book checkOutCopy(Long id) throws ResourceNotFoundException, BookNotAvailableException {
+        if (bookRepository.decrementAvailableCopies(id) == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Book with this id not found");
+            }
+            throw new BookNotAvailableException("No copy of this book is available");
+        }
+        return findById(id);
+    }
+
+    @Override
+    @Transactional
+    public void returnCopy(Long id) {
+        bookRepository.incrementAvailableCopies(id);
+    }
+
+    /**
+     * Adds or withdraws copies of the book with a single conditional update, which moves the
+     * available copies by the same difference and matches no row if fewer copies would remain
+     * than are checked out.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void setCopies(Long id, int copies) throws ResourceNotFoundException, BookNotAvailableException {
+        if (bookRepository.updateCopies(id, copies) == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Book with this id not found");
+            }
+            throw new BookNotAvailableException("More copies of this book are checked out");
+        }
     }
 
+    /**
+     * Locks the given books until the calling transaction ends and returns how many copies
+     * each of them has available, which cannot change until then. Ids that do not exist are
+     * missing from the result.
+     */
     @Override
-    public List<Book> findAllByGenresContainingName(String genreName) {
-        // Wrap genreName in '%' before it is passed to the JPQL query
-        String genreLike = "%" + genreName + "%";
-        return bookRepository.findAllByGenresNameLike(genreLike);
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Integer> lockAvailableCopies(Collection<Long> ids) {
+        return toCopiesById(bookRepository.findAvailableCopiesForUpdateByIdIn(new HashSet<>(ids)));
     }
 
+    /**
+     * Locks the given books like {@link #lockAvailableCopies} and returns how many copies of
+     * each of them are checked out.
+     */
     @Override
-    public List<Book> findAllByAuthorsContainingName(String authorName) {
-        // Wrap authorName in '%' before it is passed to the JPQL query
-        String authorLike = "%" + authorName + "%";
-        return bookRepository.findAllByAuthorsNameLike(authorLike);
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Integer> lockCheckedOutCopies(Collection<Long> ids) {
+        return toCopiesById(bookRepository.findCheckedOutCopiesForUpdateByIdIn(new HashSet<>(ids)));
+    }
+
+    private static Map<Long, Integer> toCopiesById(List<Object[]> rows) {
+        Map<Long, Integer> copiesById = new HashMap<>();
+        for (Object[] row : rows) {
+            copiesById.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return copiesById;
     }
 
+    /**
+     * Returns an unloaded reference to the book, to link new rows to a book known to exist.
+     */
     @Override
-    public List<Book> findAllByTitleContaining(String title) {
-        // This method does not need any wrapping of the argument, because
-        // underneath it uses regular JpaRepository generated query, and not JPQL custom query
-        return bookRepository.findAllByTitleContaining(title);
+    public Book getReference(Long id) {
+        return bookRepository.getOne(id);
+    }
+
+    /**
+     * Takes the given number of copies of each book, with one update for all the books taking
+     * the same number of copies. The books have to be locked by {@link #lockAvailableCopies}
+     * and have enough copies available.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void takeCopies(Map<Long, Integer> copiesByBookId) {
+        groupByCount(copiesByBookId).forEach((count, ids) ->
+                checkUpdated(bookRepository.decrementAvailableCopiesIn(ids, count), ids));
+    }
+
+    /**
+     * Gives back the given number of copies of each book, like {@link #takeCopies}. The books
+     * have to be locked by {@link #lockCheckedOutCopies} and have that many copies checked out.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void returnCopies(Map<Long, Integer> copiesByBookId) {
+        groupByCount(copiesByBookId).forEach((count, ids) ->
+                checkUpdated(bookRepository.incrementAvailableCopiesIn(ids, count), ids));
+    }
+
+    // the callers checked the counters under the lock, a book left out is a bug and rolls the batch back
+    private static void checkUpdated(int updated, List<Long> ids) {
+        if (updated != ids.size()) {
+            throw new IllegalStateException("Copies of " + (ids.size() - updated) + " of the books " + ids + " could not be updated");
+        }
+    }
+
+    private static Map<Integer, List<Long>> groupByCount(Map<Long, Integer> copiesByBookId) {
+        Map<Integer, List<Long>> idsByCount = new HashMap<>();
+        // sorted ids give every update the same row order
+        new TreeMap<>(copiesByBookId).forEach((id, count) -> idsByCount.computeIfAbsent(count, c -> new ArrayList<>()).add(id));
+        return idsByCount;
+    }
+
+    @Override
+    public KeysetPage<Book> findAll(KeysetRequest page) {
+        List<Book> books = bookRepository.findAllByIdGreaterThanOrderByIdAsc(page.getAfterId(), page.toPageable());
+        return KeysetPage.of(books, page, Book::getId);
+    }
+
+    @Override
+    public KeysetPage<Book> findAllByGenresContainingName(String genreName, KeysetRequest page) {
+        // Genre names are resolved by the trigram index, and their books by the precomputed adjacency
+        List<Long> genreIds = genreService.findIdsByNameContaining(genreName);
+        return findPageById(bookRelationIndex.findBookIdsByGenreIds(genreIds), page);
+    }
+
+    @Override
+    public KeysetPage<Book> findAllByAuthorsContainingName(String authorName, KeysetRequest page) {
+        // Author names are resolved by the trigram index, and their books by the precomputed adjacency
+        List<Long> authorIds = authorService.findIdsByNameContaining(authorName);
+        return findPageById(bookRelationIndex.findBookIdsByAuthorIds(authorIds), page);
+    }
+
+    @Override
+    public KeysetPage<Book> findAllByTitleContaining(String title, KeysetRequest page) {
+        // Titles are resolved to ids by the in-memory index, the database is only used
+        // to load the matching books by their primary keys
+        return findPageById(bookTitleIndex.search(title), page);
+    }
+
+    @Override
+    public KeysetPage<Book> search(BookSearchCriteria criteria, KeysetRequest page) {
+        if (criteria.isEmpty()) {
+            return findAll(page);
+        }
+        return findPageById(SortedIds.toList(bookSearchPlanner.findIds(criteria)), page);
+    }
+
+    /**
+     * Lists books as {@link BookSummary} projections: the page of ids comes from the keyset
+     * query or the search indexes, and three flat queries read their titles, author names and
+     * genre names, one row per book or link.
+     * The read-only transaction lets Hibernate skip the flush and dirty checking at commit.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<BookSummary> findSummaries(BookSearchCriteria criteria, KeysetRequest page) {
+        List<Long> ids = criteria.isEmpty()
+                ? bookRepository.findIdsAfter(page.getAfterId(), page.toPageable())
+                : page.slice(SortedIds.toList(bookSearchPlanner.findIds(criteria)));
+        if (ids.isEmpty()) {
+            return KeysetPage.lastPage(new ArrayList<>());
+        }
+        List<BookSummary> summaries = BookSummary.fromRows(bookRepository.findIdsAndTitlesByIdIn(ids),
+                bookRepository.findAuthorRowsByIdIn(ids), bookRepository.findGenreRowsByIdIn(ids));
+        return KeysetPage.of(summaries, page, BookSummary::getId);
+    }
+
+    private KeysetPage<Book> findPageById(List<Long> sortedIds, KeysetRequest page) {
+        List<Long> ids = page.slice(sortedIds);
+        if (ids.isEmpty()) {
+            return KeysetPage.lastPage(new ArrayList<>());
+        }
+        List<Book> books = bookRepository.findAllByIdIn(ids);
+        books.sort(Comparator.comparing(Book::getId));
+        return KeysetPage.of(books, page, Book::getId);
     }
 }
@@ -0,0 +1,84 @@
+package oop.libapp.book;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only view of a book for listings: its title with the names of its authors and genres.
+ * Summaries are built from flat projection rows, so no entity is ever loaded for them.
+ */
+public class BookSummary {
+
+    private final Long id;
+    private final String title;
+    private final List<String> authorNames;
+    private final List<String> genreNames;
+
+    public BookSummary(Long id, String title, List<String> authorNames, List<String> genreNames) {
+        this.id = id;
+        this.title = title;
+        this.authorNames = authorNames;
+        this.genreNames = genreNames;
+    }
+
+    /**
+     * Builds one summary per row of (book id, title), in the order of the rows, with the names
+     * from the rows of (book id, author or genre id, name). Different authors or genres may
+     * share a name, so the names are told apart by id.
+     */
+    public static List<BookSummary> fromRows(List<Object[]> titleRows, List<Object[]> authorRows, List<Object[]> genreRows) {
+        Map<Long, Builder> builders = new LinkedHashMap<>();
+        for (Object[] row : titleRows) {
+            builders.put((Long) row[0], new Builder((Long) row[0], (String) row[1]));
+        }
+        for (Object[] row : authorRows) {
+            Builder builder = builders.get((Long) row[0]);
+            if (builder != null) {
+                builder.authorNames.putIfAbsent((Long) row[1], (String) row[2]);
+            }
+        }
+        for (Object[] row : genreRows) {
+            Builder builder = builders.get((Long) row[0]);
+            if (builder != null) {
+                builder.genreNames.putIfAbsent((Long) row[1], (String) row[2]);
+            }
+        }
+        List<BookSummary> summaries = new ArrayList<>(builders.size());
+        for (Builder builder : builders.values()) {
+            summaries.add(new BookSummary(builder.id, builder.title,
+                    new ArrayList<>(builder.authorNames.values()), new ArrayList<>(builder.genreNames.values())));
+        }
+        return summaries;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public List<String> getAuthorNames() {
+        return authorNames;
+    }
+
+    public List<String> getGenreNames() {
+        return genreNames;
+    }
+
+    private static class Builder {
+        private final Long id;
+        private final String title;
+        // id -> name, in the order of the rows
+        private final Map<Long, String> authorNames = new LinkedHashMap<>();
+        private final Map<Long, String> genreNames = new LinkedHashMap<>();
+
+        private Builder(Long id, String title) {
+            this.id = id;
+            this.title = title;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package oop.libapp.book;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over book titles.
+ *
+ * Titles are split into lower-cased alphanumeric tokens, and every token points to the ids
+ * of the books containing it. Because the term dictionary is sorted, a query token is matched
+ * against every indexed token it is a prefix of with a single range lookup, so the last word
+ * of a search-box query can still be incomplete. Candidates are then checked against the
+ * stored title, so the result is the same as a case-insensitive "title contains query"
+ * for every query that starts at a word boundary.
+ *
+ * Every node keeps its own index. Books saved or deleted by another node are only found here
+ * after the periodic rebuild, so search results lag behind the database by at most
+ * {@code libapp.search.index-rebuild-interval-ms} (ten minutes by default). A rebuild fills a
+ * fresh index and swaps it in once it is complete, so searches made while it runs never see a
+ * partly filled index. Titles put or removed during a rebuild are replayed into the new index
+ * before the swap.
+ */
+@Component
+public class BookTitleIndex {
+
+    static final String REBUILD_INTERVAL_MS = "${libapp.search.index-rebuild-interval-ms:600000}";
+
+    private final BookRepository bookRepository;
+
+    private volatile Postings postings = new Postings();
+    // updates made while a rebuild is running, guarded by this
+    private List<Consumer<Postings>> updatesDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    @Autowired
+    public BookTitleIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    // the first build completes before the server accepts requests
+    @PostConstruct
+    @Scheduled(initialDelayString = REBUILD_INTERVAL_MS, fixedDelayString = REBUILD_INTERVAL_MS)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                updatesDuringRebuild = new ArrayList<>();
+            }
+
+            Postings rebuilt = new Postings();
+            try {
+                for (Object[] row : bookRepository.findAllIdsAndTitles()) {
+                    rebuilt.put((Long) row[0], (String) row[1]);
+                }
+            } catch (RuntimeException ex) {
+                // the current index stays in use, it already holds every update
+                synchronized (this) {
+                    updatesDuringRebuild = null;
+                }
+                throw ex;
+            }
+
+            synchronized (this) {
+                for (Consumer<Postings> update : updatesDuringRebuild) {
+                    update.accept(rebuilt);
+                }
+                updatesDuringRebuild = null;
+                postings = rebuilt;
+            }
+        }
+    }
+
+    public void put(Long id, String title) {
+        update(postings -> postings.put(id, title));
+    }
+
+    public void remove(Long id) {
+        update(postings -> postings.remove(id));
+    }
+
+    private synchronized void update(Consumer<Postings> update) {
+        update.accept(postings);
+        if (updatesDuringRebuild != null) {
+            updatesDuringRebuild.add(update);
+        }
+    }
+
+    /**
+     * Returns the ids of all books whose title contains the given text, in ascending order.
+     */
+    public List<Long> search(String text) {
+        Postings postings = this.postings;
+        List<String> queryTokens = tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Start from the rarest token, so the candidate set is as small as possible
+        List<Set<Long>> matches = new ArrayList<>();
+        for (String token : queryTokens) {
+            Set<Long> tokenMatches = postings.idsForPrefix(token);
+            if (tokenMatches.isEmpty()) {
+                return new ArrayList<>();
+            }
+            matches.add(tokenMatches);
+        }
+        matches.sort(Comparator.comparingInt(Set::size));
+
+        String needle = text.toLowerCase(Locale.ROOT);
+        List<Long> result = new ArrayList<>();
+        for (Long id : matches.get(0)) {
+            String title = postings.titles.get(id);
+            if (title != null && containsAll(matches, id) && title.toLowerCase(Locale.ROOT).contains(needle)) {
+                result.add(id);
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public int size() {
+        return postings.titles.size();
+    }
+
+    private static boolean containsAll(List<Set<Long>> matches, Long id) {
+        for (int i = 1; i < matches.size(); i++) {
+            if (!matches.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static class Postings {
+
+        private final ConcurrentNavigableMap<String, Set<Long>> ids = new ConcurrentSkipListMap<>();
+        private final Map<Long, String> titles = new ConcurrentHashMap<>();
+
+        private void put(Long id, String title) {
+            remove(id);
+            if (title == null) {
+                return;
+            }
+            titles.put(id, title);
+            for (String token : tokenize(title)) {
+                ids.computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        private void remove(Long id) {
+            String oldTitle = titles.remove(id);
+            if (oldTitle == null) {
+                return;
+            }
+            for (String token : tokenize(oldTitle)) {
+                Set<Long> tokenIds = ids.get(token);
+                if (tokenIds != null) {
+                    tokenIds.remove(id);
+                    if (tokenIds.isEmpty()) {
+                        ids.remove(token);
+                    }
+                }
+            }
+        }
+
+        private Set<Long> idsForPrefix(String prefix) {
+            // every token starting with the prefix sorts between the prefix and prefix + MAX_VALUE
+            Collection<Set<Long>> ranges = ids.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+            if (ranges.size() == 1) {
+                return ranges.iterator().next();
+            }
+            Set<Long> prefixIds = new HashSet<>();
+            for (Set<Long> range : ranges) {
+                prefixIds.addAll(range);
+            }
+            return prefixIds;
+        }
+    }
+}
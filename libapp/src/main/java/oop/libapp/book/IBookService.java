@@ -1,15 +1,28 @@
 package oop.libapp.book;
 
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.Map;
 
 public interface IBookService {
     boolean deleteById(Long id) throws ResourceNotFoundException;
     Book findById(Long id) throws ResourceNotFoundException;
     Book save(Book book);
-    List<Book> findAll();
-    List<Book> findAllByGenresContainingName(String genreName);
-    List<Book> findAllByAuthorsContainingName(String authorName);
-    List<Book> findAllByTitleContaining(String title);
+    Book checkOutCopy(Long id) throws ResourceNotFoundException, BookNotAvailableException;
+    void returnCopy(Long id);
+    void setCopies(Long id, int copies) throws ResourceNotFoundException, BookNotAvailableException;
+    Map<Long, Integer> lockAvailableCopies(Collection<Long> ids);
+    Map<Long, Integer> lockCheckedOutCopies(Collection<Long> ids);
+    Book getReference(Long id);
+    void takeCopies(Map<Long, Integer> copiesByBookId);
+    void returnCopies(Map<Long, Integer> copiesByBookId);
+    KeysetPage<Book> findAll(KeysetRequest page);
+    KeysetPage<Book> findAllByGenresContainingName(String genreName, KeysetRequest page);
+    KeysetPage<Book> findAllByAuthorsContainingName(String authorName, KeysetRequest page);
+    KeysetPage<Book> findAllByTitleContaining(String title, KeysetRequest page);
+    KeysetPage<Book> search(BookSearchCriteria criteria, KeysetRequest page);
+    KeysetPage<BookSummary> findSummaries(BookSearchCriteria criteria, KeysetRequest page);
 }
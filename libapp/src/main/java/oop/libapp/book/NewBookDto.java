@@ -2,6 +2,8 @@ package oop.libapp.book;
 
 import org.hibernate.validator.constraints.Length;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
 import java.util.List;
@@ -20,6 +22,10 @@ public class NewBookDto {
     @Size(min = 1, max = 10)
     private List<Long> genreIds;
 
+    @Min(1)
+    @Max(10000)
+    private Integer copies;
+
     public String getTitle() {
         return title;
     }
@@ -36,6 +42,14 @@ public class NewBookDto {
         this.authorIds = authorIds;
     }
 
+    public Integer getCopies() {
+        return copies;
+    }
+
+    public void setCopies(Integer copies) {
+        this.copies = copies;
+    }
+
     public List<Long> getGenreIds() {
         return genreIds;
     }
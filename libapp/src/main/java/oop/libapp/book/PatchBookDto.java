@@ -1,6 +1,9 @@
 package oop.libapp.book;
 
 import org.hibernate.validator.constraints.Length;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.Size;
 import java.util.List;
 
@@ -15,6 +18,10 @@ public class PatchBookDto {
     @Size(min = 1, max = 10)
     private List<Long> genreIds;
 
+    @Min(1)
+    @Max(10000)
+    private Integer copies;
+
     public String getTitle() {
         return title;
     }
@@ -38,4 +45,12 @@ public class PatchBookDto {
     public void setGenreIds(List<Long> genreIds) {
         this.genreIds = genreIds;
     }
-}
\ No newline at end of file
+
+    public Integer getCopies() {
+        return copies;
+    }
+
+    public void setCopies(Integer copies) {
+        this.copies = copies;
+    }
+}
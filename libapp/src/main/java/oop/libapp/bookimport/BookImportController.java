@@ -0,0 +1,55 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.exception.MalformedCsvException;
+import oop.libapp.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.Principal;
+
+@RestController
+public class BookImportController {
+
+    private IBookImportService bookImportService;
+
+    @Autowired
+    public BookImportController(IBookImportService bookImportService) {
+        this.bookImportService = bookImportService;
+    }
+
+    /**
+     * Accepts a UTF-8 CSV document in the {@link BookImportFormat} and imports it in the background.
+     * The job's progress is served from the returned location.
+     */
+    @RequestMapping(value = "api/books/import", method = RequestMethod.POST, consumes = "text/csv")
+    public ResponseEntity<ImportJob> importBooks(InputStream body, Principal principal)
+            throws IOException, MalformedCsvException {
+        return accepted(bookImportService.start(body, principal.getName()));
+    }
+
+    @RequestMapping(value = "api/books/import/{id}", method = RequestMethod.GET)
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable Long id) throws ResourceNotFoundException {
+        return new ResponseEntity<>(bookImportService.findById(id), HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "api/books/import/{id}/resume", method = RequestMethod.POST)
+    public ResponseEntity<ImportJob> resumeImportJob(@PathVariable Long id)
+            throws ResourceNotFoundException, ImportJobNotResumableException {
+        return accepted(bookImportService.resume(id));
+    }
+
+    private static ResponseEntity<ImportJob> accepted(ImportJob job) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setLocation(URI.create("/api/books/import/" + job.getId()));
+        return new ResponseEntity<>(job, headers, HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,96 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.exception.MalformedCsvException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Column layout of a catalog import document. The header row must name a title column; authors,
+ * genres, isbn, language, publicationYear, numberOfPages and description are optional and may
+ * appear in any order. Several authors or genres are separated by {@value #NAME_SEPARATOR}.
+ */
+public class BookImportFormat {
+
+    static final String NAME_SEPARATOR = ";";
+
+    private final int fieldCount;
+    private final int title;
+    private final int authors;
+    private final int genres;
+    private final int isbn;
+    private final int language;
+    private final int publicationYear;
+    private final int numberOfPages;
+    private final int description;
+
+    private BookImportFormat(List<String> header) {
+        this.fieldCount = header.size();
+        this.title = header.indexOf("title");
+        this.authors = header.indexOf("authors");
+        this.genres = header.indexOf("genres");
+        this.isbn = header.indexOf("isbn");
+        this.language = header.indexOf("language");
+        this.publicationYear = header.indexOf("publicationYear");
+        this.numberOfPages = header.indexOf("numberOfPages");
+        this.description = header.indexOf("description");
+    }
+
+    public static BookImportFormat fromHeader(List<String> header) throws MalformedCsvException {
+        if (header == null) {
+            throw new MalformedCsvException("CSV document is empty");
+        }
+        if (!header.contains("title")) {
+            throw new MalformedCsvException("CSV header must contain a title column");
+        }
+        return new BookImportFormat(header);
+    }
+
+    public BookImportRecord parse(List<String> fields) throws RejectedRecordException {
+        if (fields.size() != fieldCount) {
+            throw new RejectedRecordException("has " + fields.size() + " fields, expected " + fieldCount);
+        }
+        String bookTitle = text(fields, title);
+        if (bookTitle == null) {
+            throw new RejectedRecordException("has no title");
+        }
+        return new BookImportRecord(bookTitle, names(fields, authors), names(fields, genres),
+                text(fields, isbn), text(fields, language),
+                number(fields, publicationYear, "publicationYear"), number(fields, numberOfPages, "numberOfPages"),
+                text(fields, description));
+    }
+
+    private static String text(List<String> fields, int column) {
+        if (column < 0) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Set<String> names(List<String> fields, int column) {
+        Set<String> names = new LinkedHashSet<>();
+        String value = text(fields, column);
+        if (value != null) {
+            for (String name : value.split(NAME_SEPARATOR)) {
+                if (!name.trim().isEmpty()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static Integer number(List<String> fields, int column, String columnName) throws RejectedRecordException {
+        String value = text(fields, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RejectedRecordException("has an invalid " + columnName + " '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.book.BookInfo;
+
+import java.util.Set;
+
+/**
+ * One validated row of a catalog import document.
+ */
+public class BookImportRecord {
+
+    private final String title;
+    private final Set<String> authorNames;
+    private final Set<String> genreNames;
+    private final String isbn;
+    private final String language;
+    private final Integer publicationYear;
+    private final Integer numberOfPages;
+    private final String description;
+
+    public BookImportRecord(String title, Set<String> authorNames, Set<String> genreNames, String isbn,
+                            String language, Integer publicationYear, Integer numberOfPages, String description) {
+        this.title = title;
+        this.authorNames = authorNames;
+        this.genreNames = genreNames;
+        this.isbn = isbn;
+        this.language = language;
+        this.publicationYear = publicationYear;
+        this.numberOfPages = numberOfPages;
+        this.description = description;
+    }
+
+    public void applyTo(BookInfo bookInfo) {
+        bookInfo.setIsbn(isbn);
+        bookInfo.setLanguage(language);
+        bookInfo.setPublicationYear(publicationYear);
+        bookInfo.setNumberOfPages(numberOfPages);
+        bookInfo.setDescription(description);
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Set<String> getAuthorNames() {
+        return authorNames;
+    }
+
+    public Set<String> getGenreNames() {
+        return genreNames;
+    }
+}
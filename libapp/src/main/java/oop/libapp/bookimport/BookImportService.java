@@ -0,0 +1,384 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.author.Author;
+import oop.libapp.author.AuthorNameIndex;
+import oop.libapp.author.AuthorRepository;
+import oop.libapp.book.Book;
+import oop.libapp.book.BookRelationIndex;
+import oop.libapp.book.BookTitleIndex;
+import oop.libapp.exception.MalformedCsvException;
+import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.genre.Genre;
+import oop.libapp.genre.GenreNameIndex;
+import oop.libapp.genre.GenreRepository;
+import oop.libapp.util.CsvReader;
+import oop.libapp.util.LruMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Imports books from CSV documents in the {@link BookImportFormat}, one job at a time on a
+ * background thread.
+ *
+ * The upload is spooled to disk and read record by record, and every chunk of
+ * {@value #CHUNK_SIZE} rows is imported in its own transaction together with the job's progress,
+ * so a failed or interrupted job resumes after its last committed chunk. Its upload is kept for
+ * that until the job completes or, unless resumed, for the retention period. Authors and genres are
+ * matched by name regardless of case, as MySQL's default collation compares them: recently seen
+ * names are resolved from bounded in-memory maps, the rest with one query per chunk, and missing
+ * ones are created with the spelling first seen. New rows are persisted through the
+ * entity manager, which sends them as JDBC batches and keeps the second-level cache consistent.
+ * Memory use depends on the chunk size and the name map size, never on the document size.
+ */
+@Service
+public class BookImportService implements IBookImportService {
+
+    static final int CHUNK_SIZE = 500;
+    static final int NAME_CACHE_SIZE = 10_000;
+    static final String CLEANUP_INTERVAL_MS = "${libapp.import.cleanup-interval-ms:3600000}";
+
+    private static final Logger logger = LoggerFactory.getLogger(BookImportService.class);
+
+    private ImportJobRepository importJobRepository;
+    private AuthorRepository authorRepository;
+    private GenreRepository genreRepository;
+    private AuthorNameIndex authorNameIndex;
+    private GenreNameIndex genreNameIndex;
+    private BookTitleIndex bookTitleIndex;
+    private BookRelationIndex bookRelationIndex;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private Path spoolDirectory;
+    private long retentionMs;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            runnable -> new Thread(runnable, "book-import"));
+
+    // lower case name to id of the authors and genres seen by recent chunks, used only on the import thread
+    private final Map<String, Long> authorIds = new LruMap<>(NAME_CACHE_SIZE);
+    private final Map<String, Long> genreIds = new LruMap<>(NAME_CACHE_SIZE);
+
+    @Autowired
+    public BookImportService(ImportJobRepository importJobRepository, AuthorRepository authorRepository,
+                             GenreRepository genreRepository, AuthorNameIndex authorNameIndex,
+                             GenreNameIndex genreNameIndex, BookTitleIndex bookTitleIndex,
+                             BookRelationIndex bookRelationIndex, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${libapp.import.directory:${java.io.tmpdir}/libapp-imports}") String spoolDirectory,
+                             @Value("${libapp.import.retention-days:7}") int retentionDays) {
+        this.importJobRepository = importJobRepository;
+        this.authorRepository = authorRepository;
+        this.genreRepository = genreRepository;
+        this.authorNameIndex = authorNameIndex;
+        this.genreNameIndex = genreNameIndex;
+        this.bookTitleIndex = bookTitleIndex;
+        this.bookRelationIndex = bookRelationIndex;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.spoolDirectory = Paths.get(spoolDirectory);
+        this.retentionMs = TimeUnit.DAYS.toMillis(retentionDays);
+    }
+
+    // jobs left queued or running by a previous run of the application have to be resumed explicitly
+    @EventListener(ApplicationReadyEvent.class)
+    public void markUnfinishedJobsAsInterrupted() {
+        importJobRepository.markUnfinishedAsInterrupted();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ImportJob start(InputStream csv, String username) throws IOException, MalformedCsvException {
+        Files.createDirectories(spoolDirectory);
+        Path file = Files.createTempFile(spoolDirectory, "books-", ".csv");
+        try {
+            Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                BookImportFormat.fromHeader(new CsvReader(reader).readRecord());
+            }
+        } catch (IOException | MalformedCsvException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        ImportJob job = importJobRepository.save(new ImportJob(file.toString(), username));
+        executor.execute(() -> run(job.getId()));
+        return job;
+    }
+
+    @Override
+    public ImportJob findById(Long id) throws ResourceNotFoundException {
+        Optional<ImportJob> job = importJobRepository.findById(id);
+        if (job.isPresent()) {
+            return job.get();
+        } else {
+            throw new ResourceNotFoundException("Import job with this id not found");
+        }
+    }
+
+    @Override
+    public synchronized ImportJob resume(Long id) throws ResourceNotFoundException, ImportJobNotResumableException {
+        ImportJob job = findById(id);
+        if (job.getStatus() != ImportJobStatus.FAILED && job.getStatus() != ImportJobStatus.INTERRUPTED) {
+            throw new ImportJobNotResumableException("Only failed or interrupted import jobs can be resumed");
+        }
+        job.setStatus(ImportJobStatus.QUEUED);
+        job.setFailure(null);
+        job.setFinishedAt(null);
+        ImportJob queuedJob = importJobRepository.save(job);
+        executor.execute(() -> run(queuedJob.getId()));
+        return queuedJob;
+    }
+
+    /**
+     * Deletes the uploads of the failed and interrupted jobs that were not resumed within the
+     * retention period, and marks the jobs expired so they cannot be resumed any more.
+     */
+    @Scheduled(initialDelayString = CLEANUP_INTERVAL_MS, fixedDelayString = CLEANUP_INTERVAL_MS)
+    public synchronized void expireAbandonedJobs() {
+        for (ImportJob job : importJobRepository.findResumableFinishedBefore(new Date(System.currentTimeMillis() - retentionMs))) {
+            try {
+                Files.deleteIfExists(Paths.get(job.getFileName()));
+            } catch (IOException e) {
+                logger.warn("Upload of import job " + job.getId() + " could not be deleted", e);
+                continue;
+            }
+            job.setStatus(ImportJobStatus.EXPIRED);
+            importJobRepository.save(job);
+        }
+    }
+
+    void run(Long jobId) {
+        ImportJob job = importJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() != ImportJobStatus.QUEUED) {
+            return;
+        }
+        job.setStatus(ImportJobStatus.RUNNING);
+        importJobRepository.save(job);
+
+        // authors or genres may have been deleted since the previous job
+        authorIds.clear();
+        genreIds.clear();
+
+        Path file = Paths.get(job.getFileName());
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CsvReader csvReader = new CsvReader(reader);
+            BookImportFormat format = BookImportFormat.fromHeader(csvReader.readRecord());
+            // the rows before the checkpoint were committed by an earlier run
+            for (long skipped = 0; skipped < job.getRowsProcessed(); skipped++) {
+                if (csvReader.readRecord() == null) {
+                    break;
+                }
+            }
+
+            Chunk chunk;
+            while ((chunk = readChunk(csvReader, format)).rows > 0) {
+                Chunk records = chunk;
+                ImportedChunk imported = transactionTemplate.execute(status -> importChunk(jobId, records));
+                publish(imported);
+                if (Thread.currentThread().isInterrupted()) {
+                    finish(jobId, ImportJobStatus.INTERRUPTED, null);
+                    return;
+                }
+            }
+            finish(jobId, ImportJobStatus.COMPLETED, null);
+            Files.deleteIfExists(file);
+        } catch (Exception e) {
+            logger.error("Import job " + jobId + " failed", e);
+            finish(jobId, ImportJobStatus.FAILED, e.getMessage() != null ? e.getMessage() : e.getClass().getName());
+        }
+    }
+
+    private static Chunk readChunk(CsvReader csvReader, BookImportFormat format) throws IOException {
+        Chunk chunk = new Chunk();
+        List<String> fields;
+        while (chunk.rows < CHUNK_SIZE && (fields = csvReader.readRecord()) != null) {
+            chunk.rows++;
+            try {
+                chunk.records.add(format.parse(fields));
+            } catch (RejectedRecordException e) {
+                chunk.rejected++;
+                chunk.lastRejection = "Record " + csvReader.getRecordNumber() + " " + e.getMessage();
+            }
+        }
+        return chunk;
+    }
+
+    private ImportedChunk importChunk(Long jobId, Chunk chunk) {
+        ImportedChunk imported = new ImportedChunk();
+        // in the order of the document, so a new author or genre gets the spelling seen first
+        Set<String> authorNames = new LinkedHashSet<>();
+        Set<String> genreNames = new LinkedHashSet<>();
+        for (BookImportRecord record : chunk.records) {
+            authorNames.addAll(record.getAuthorNames());
+            genreNames.addAll(record.getGenreNames());
+        }
+        imported.authorIds = resolve(authorNames, authorIds, authorRepository::findIdsAndNamesByLowerCaseNameIn, name -> {
+            Author author = new Author(name, null);
+            entityManager.persist(author);
+            return author.getId();
+        }, imported.createdAuthors);
+        imported.genreIds = resolve(genreNames, genreIds, genreRepository::findIdsAndNamesByLowerCaseNameIn, name -> {
+            Genre genre = new Genre(name, null);
+            entityManager.persist(genre);
+            return genre.getId();
+        }, imported.createdGenres);
+
+        for (BookImportRecord record : chunk.records) {
+            Set<Author> authors = new HashSet<>();
+            List<Long> bookAuthorIds = new ArrayList<>();
+            for (String name : record.getAuthorNames()) {
+                Long id = imported.authorIds.get(key(name));
+                if (!bookAuthorIds.contains(id)) {
+                    authors.add(entityManager.getReference(Author.class, id));
+                    bookAuthorIds.add(id);
+                }
+            }
+            List<Genre> genres = new ArrayList<>();
+            List<Long> bookGenreIds = new ArrayList<>();
+            for (String name : record.getGenreNames()) {
+                Long id = imported.genreIds.get(key(name));
+                if (!bookGenreIds.contains(id)) {
+                    genres.add(entityManager.getReference(Genre.class, id));
+                    bookGenreIds.add(id);
+                }
+            }
+
+            Book book = new Book(record.getTitle(), authors, genres);
+            record.applyTo(book.getBookInfo());
+            entityManager.persist(book);
+            imported.books.add(new ImportedBook(book.getId(), book.getTitle(), bookAuthorIds, bookGenreIds));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // the checkpoint is committed together with the chunk it covers
+        ImportJob job = importJobRepository.findById(jobId).get();
+        job.setRowsProcessed(job.getRowsProcessed() + chunk.rows);
+        job.setRowsRejected(job.getRowsRejected() + chunk.rejected);
+        job.setBooksImported(job.getBooksImported() + imported.books.size());
+        job.setAuthorsCreated(job.getAuthorsCreated() + imported.createdAuthors.size());
+        job.setGenresCreated(job.getGenresCreated() + imported.createdGenres.size());
+        if (chunk.lastRejection != null) {
+            job.setLastRejection(chunk.lastRejection);
+        }
+        return imported;
+    }
+
+    /**
+     * Maps the lower case form of every name to an id, taking it from the cache, then from the
+     * database with one query for all the missing names, and creating the remaining ones. When
+     * the database holds several rows with the same name, the oldest one is used.
+     */
+    private static Map<String, Long> resolve(Set<String> names, Map<String, Long> cache,
+                                             Function<Collection<String>, List<Object[]>> lookup,
+                                             Function<String, Long> create, Map<Long, String> created) {
+        Map<String, Long> ids = new HashMap<>();
+        // lower case name to the spelling a new row is created with
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String name : names) {
+            String key = key(name);
+            Long id = cache.get(key);
+            if (id != null) {
+                ids.put(key, id);
+            } else {
+                missing.putIfAbsent(key, name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Object[] row : lookup.apply(missing.keySet())) {
+                ids.merge(key((String) row[1]), (Long) row[0], Math::min);
+            }
+            missing.forEach((key, name) -> {
+                if (!ids.containsKey(key)) {
+                    Long id = create.apply(name);
+                    ids.put(key, id);
+                    created.put(id, name);
+                }
+            });
+        }
+        return ids;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    // the caches and search indexes only learn about a chunk once it is committed
+    private void publish(ImportedChunk imported) {
+        authorIds.putAll(imported.authorIds);
+        genreIds.putAll(imported.genreIds);
+        imported.createdAuthors.forEach(authorNameIndex::put);
+        imported.createdGenres.forEach(genreNameIndex::put);
+        for (ImportedBook book : imported.books) {
+            bookTitleIndex.put(book.id, book.title);
+            bookRelationIndex.put(book.id, book.authorIds, book.genreIds);
+        }
+    }
+
+    private void finish(Long jobId, ImportJobStatus status, String failure) {
+        transactionTemplate.execute(transactionStatus -> {
+            ImportJob job = importJobRepository.findById(jobId).get();
+            job.setStatus(status);
+            job.setFailure(failure);
+            job.setFinishedAt(new Date());
+            return job;
+        });
+    }
+
+    private static class Chunk {
+        private final List<BookImportRecord> records = new ArrayList<>();
+        private int rows;
+        private int rejected;
+        private String lastRejection;
+    }
+
+    private static class ImportedChunk {
+        private Map<String, Long> authorIds;
+        private Map<String, Long> genreIds;
+        private final Map<Long, String> createdAuthors = new HashMap<>();
+        private final Map<Long, String> createdGenres = new HashMap<>();
+        private final List<ImportedBook> books = new ArrayList<>();
+    }
+
+    private static class ImportedBook {
+        private final Long id;
+        private final String title;
+        private final List<Long> authorIds;
+        private final List<Long> genreIds;
+
+        private ImportedBook(Long id, String title, List<Long> authorIds, List<Long> genreIds) {
+            this.id = id;
+            this.title = title;
+            this.authorIds = authorIds;
+            this.genreIds = genreIds;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.exception.MalformedCsvException;
+import oop.libapp.exception.ResourceNotFoundException;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface IBookImportService {
+    ImportJob start(InputStream csv, String username) throws IOException, MalformedCsvException;
+    ImportJob findById(Long id) throws ResourceNotFoundException;
+    ImportJob resume(Long id) throws ResourceNotFoundException, ImportJobNotResumableException;
+}
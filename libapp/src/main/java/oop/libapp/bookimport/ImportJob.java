@@ -0,0 +1,153 @@
+package oop.libapp.bookimport;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * A catalog import and its progress. The counters are updated in the transaction that imports
+ * each chunk, so {@link #rowsProcessed} is always the checkpoint a resumed job continues from.
+ */
+@Entity
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import_job_seq")
+    @SequenceGenerator(name = "import_job_seq", sequenceName = "import_job_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status;
+
+    // the uploaded document, spooled to disk so the job can be resumed
+    @JsonIgnore
+    @Column(nullable = false)
+    private String fileName;
+
+    private String createdBy;
+    private Date createdAt;
+    private Date finishedAt;
+
+    private long rowsProcessed;
+    private long rowsRejected;
+    private long booksImported;
+    private long authorsCreated;
+    private long genresCreated;
+
+    private String lastRejection;
+    private String failure;
+
+    public ImportJob() {}
+    public ImportJob(String fileName, String createdBy) {
+        this.status = ImportJobStatus.QUEUED;
+        this.fileName = fileName;
+        this.createdBy = createdBy;
+        this.createdAt = new Date();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ImportJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportJobStatus status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Date finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getRowsProcessed() {
+        return rowsProcessed;
+    }
+
+    public void setRowsProcessed(long rowsProcessed) {
+        this.rowsProcessed = rowsProcessed;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public long getBooksImported() {
+        return booksImported;
+    }
+
+    public void setBooksImported(long booksImported) {
+        this.booksImported = booksImported;
+    }
+
+    public long getAuthorsCreated() {
+        return authorsCreated;
+    }
+
+    public void setAuthorsCreated(long authorsCreated) {
+        this.authorsCreated = authorsCreated;
+    }
+
+    public long getGenresCreated() {
+        return genresCreated;
+    }
+
+    public void setGenresCreated(long genresCreated) {
+        this.genresCreated = genresCreated;
+    }
+
+    public String getLastRejection() {
+        return lastRejection;
+    }
+
+    public void setLastRejection(String lastRejection) {
+        this.lastRejection = lastRejection;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+}
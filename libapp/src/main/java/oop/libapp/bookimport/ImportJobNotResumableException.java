@@ -0,0 +1,8 @@
+package oop.libapp.bookimport;
+
+public class ImportJobNotResumableException extends Exception {
+
+    public ImportJobNotResumableException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,24 @@
+package oop.libapp.bookimport;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ImportJob j set j.status = oop.libapp.bookimport.ImportJobStatus.INTERRUPTED " +
+           "where j.status in (oop.libapp.bookimport.ImportJobStatus.QUEUED, oop.libapp.bookimport.ImportJobStatus.RUNNING)")
+    int markUnfinishedAsInterrupted();
+
+    // interrupted jobs may have no finish date, they count from their creation
+    @Query("select j from ImportJob j where j.status in (oop.libapp.bookimport.ImportJobStatus.FAILED, " +
+           "oop.libapp.bookimport.ImportJobStatus.INTERRUPTED) and coalesce(j.finishedAt, j.createdAt) < :before")
+    List<ImportJob> findResumableFinishedBefore(@Param("before") Date before);
+}
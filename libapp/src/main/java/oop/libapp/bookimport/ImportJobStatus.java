@@ -0,0 +1,12 @@
+package oop.libapp.bookimport;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    // the application stopped while the job was queued or running
+    INTERRUPTED,
+    // failed or interrupted and not resumed within the retention period, its upload is deleted
+    EXPIRED
+}
@@ -0,0 +1,8 @@
+package oop.libapp.bookimport;
+
+public class RejectedRecordException extends Exception {
+
+    public RejectedRecordException(String msg) {
+        super(msg);
+    }
+}
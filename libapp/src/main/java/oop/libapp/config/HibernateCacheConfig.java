@@ -0,0 +1,35 @@
+package oop.libapp.config;
+
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ResourceUtils;
+
+import java.io.FileNotFoundException;
+import java.net.URISyntaxException;
+
+/**
+ * Setup of the Hibernate second-level cache that application.yml cannot express. Imported by
+ * the application class, so the JPA slice tests get it as well.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String CACHE_CONFIG_URI = "hibernate.javax.cache.uri";
+
+    // the JCache provider opens the cache config as a plain URL, which knows no classpath: scheme
+    // unless an embedded servlet container happens to have registered one
+    @Bean
+    public HibernatePropertiesCustomizer cacheConfigUriResolver() {
+        return properties -> {
+            Object uri = properties.get(CACHE_CONFIG_URI);
+            if (uri instanceof String && ((String) uri).startsWith(ResourceUtils.CLASSPATH_URL_PREFIX)) {
+                try {
+                    properties.put(CACHE_CONFIG_URI, ResourceUtils.getURL((String) uri).toURI().toString());
+                } catch (FileNotFoundException | URISyntaxException e) {
+                    throw new IllegalStateException("Cache configuration " + uri + " cannot be resolved", e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package oop.libapp.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Exposes the hit, miss and put counts of the Hibernate second-level and query caches over JMX,
+ * in total and per cache region, so the region sizes in ehcache.xml can be tuned.
+ */
+@Component
+@ManagedResource(objectName = "oop.libapp:type=HibernateCacheStatistics", description = "Hibernate cache statistics")
+public class HibernateCacheStatistics {
+
+    private Statistics statistics;
+
+    @Autowired
+    public HibernateCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ManagedAttribute(description = "Entity and collection lookups served by the second-level cache")
+    public long getSecondLevelCacheHitCount() {
+        return statistics.getSecondLevelCacheHitCount();
+    }
+
+    @ManagedAttribute(description = "Entity and collection lookups that missed the second-level cache")
+    public long getSecondLevelCacheMissCount() {
+        return statistics.getSecondLevelCacheMissCount();
+    }
+
+    @ManagedAttribute(description = "Entities and collections put into the second-level cache")
+    public long getSecondLevelCachePutCount() {
+        return statistics.getSecondLevelCachePutCount();
+    }
+
+    @ManagedAttribute(description = "Query results served by the query cache")
+    public long getQueryCacheHitCount() {
+        return statistics.getQueryCacheHitCount();
+    }
+
+    @ManagedAttribute(description = "Cacheable queries that missed the query cache")
+    public long getQueryCacheMissCount() {
+        return statistics.getQueryCacheMissCount();
+    }
+
+    @ManagedAttribute(description = "Query results put into the query cache")
+    public long getQueryCachePutCount() {
+        return statistics.getQueryCachePutCount();
+    }
+
+    @ManagedAttribute(description = "Names of the second-level cache regions")
+    public String[] getRegionNames() {
+        return statistics.getSecondLevelCacheRegionNames();
+    }
+
+    @ManagedOperation(description = "Hits, misses, puts and in-memory entries of one cache region")
+    @ManagedOperationParameter(name = "region", description = "Region name, e.g. oop.libapp.author.Author")
+    public String getRegionStatistics(String region) {
+        SecondLevelCacheStatistics regionStatistics = statistics.getSecondLevelCacheStatistics(region);
+        if (regionStatistics == null) {
+            return "No such region: " + region;
+        }
+        return "hits=" + regionStatistics.getHitCount()
+                + ", misses=" + regionStatistics.getMissCount()
+                + ", puts=" + regionStatistics.getPutCount()
+                + ", entries=" + regionStatistics.getElementCountInMemory();
+    }
+
+    @ManagedOperation(description = "Resets all Hibernate statistics to zero")
+    public void clear() {
+        statistics.clear();
+    }
+}
@@ -1,10 +1,16 @@
 package oop.libapp.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import oop.libapp.security.jwt.JWTAuthenticationFilter;
 import oop.libapp.security.jwt.JWTAuthenticationManager;
 import oop.libapp.security.jwt.JWTAuthenticationProvider;
+import oop.libapp.security.jwt.JWTRejectionCounters;
 import oop.libapp.register.CustomUserDetailsService;
 import oop.libapp.register.IUserService;
+import oop.libapp.security.password.PasswordHashingRejectionFilter;
+import oop.libapp.security.ratelimit.RateLimitFilter;
+import oop.libapp.security.ratelimit.RateLimiter;
+import oop.libapp.security.ratelimit.UserRateLimitFilter;
 
 import java.io.IOException;
 
@@ -58,9 +64,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter implements Auth
             return new AntPathRequestMatcher("/api/**");
         }
 
+        @Bean
+        public JWTRejectionCounters jwtRejectionCounters() {
+            return new JWTRejectionCounters();
+        }
+
         @Bean
         public JWTAuthenticationFilter jwtAuthenticationFilter() {
-            JWTAuthenticationFilter filter = new JWTAuthenticationFilter();
+            JWTAuthenticationFilter filter = new JWTAuthenticationFilter(jwtRejectionCounters());
             filter.setAuthenticationManager(jwtAuthenticationManager());
             filter.setRequiresAuthenticationRequestMatcher(jwtRequestMatcher());
             filter.setContinueChainBeforeSuccessfulAuthentication(true);
@@ -75,6 +86,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter implements Auth
                     .httpBasic().disable()
                     .requestMatcher(jwtRequestMatcher())
                     .authorizeRequests()
+                    .antMatchers("/api/books/import/**").hasRole("ADMIN")
                     .antMatchers(HttpMethod.GET,"/api/**").hasRole("USER")
                     .antMatchers(HttpMethod.POST,"/api/**").hasRole("ADMIN")
                     .antMatchers(HttpMethod.PUT, "/api/**").hasRole("ADMIN")
@@ -85,7 +97,22 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter implements Auth
                     .and()
                     .exceptionHandling()
                     .and()
-                    .addFilterBefore(jwtAuthenticationFilter(), BasicAuthenticationFilter.class);
+                    .addFilterBefore(jwtAuthenticationFilter(), BasicAuthenticationFilter.class)
+                    // in front of authentication, so that a flood of requests is rejected per client IP
+                    // before any token is verified
+                    .addFilterBefore(new RateLimitFilter(rateLimiter("clientRateLimiter"), objectMapper()),
+                            JWTAuthenticationFilter.class)
+                    // behind authentication, so that every user is limited on their own
+                    .addFilterAfter(new UserRateLimitFilter(rateLimiter("rateLimiter"), objectMapper()),
+                            JWTAuthenticationFilter.class);
+        }
+
+        private RateLimiter rateLimiter(String name) {
+            return getApplicationContext().getBean(name, RateLimiter.class);
+        }
+
+        private ObjectMapper objectMapper() {
+            return getApplicationContext().getBean(ObjectMapper.class);
         }
     }
 
@@ -125,14 +152,21 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter implements Auth
                     .csrf().disable()
                     .requestMatcher(basicRequestMatcher())
                     .authorizeRequests()
-                    .antMatchers("/users/get-token").authenticated()
+                    .antMatchers("/users/get-token", "/users/revoke-token").authenticated()
                     .antMatchers("/users/register").anonymous()
+                    .antMatchers("/users/register/bulk").hasRole("ADMIN")
                     .and()
                     .httpBasic()
                     .and()
                     .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                     .and()
-                    .exceptionHandling();
+                    .exceptionHandling()
+                    .and()
+                    // before authentication, so that password hashing is limited per client IP
+                    .addFilterBefore(new RateLimitFilter(context.getBean("rateLimiter", RateLimiter.class), context.getBean(ObjectMapper.class)),
+                            BasicAuthenticationFilter.class)
+                    .addFilterBefore(new PasswordHashingRejectionFilter(context.getBean(ObjectMapper.class)),
+                            BasicAuthenticationFilter.class);
         }
     }
 
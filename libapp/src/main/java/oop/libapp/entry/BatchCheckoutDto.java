@@ -0,0 +1,35 @@
+package oop.libapp.entry;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class BatchCheckoutDto {
+
+    static final int MAX_ITEMS = 100;
+
+    @NotNull
+    private String borrowerUsername;
+
+    @NotEmpty
+    @Size(max = MAX_ITEMS)
+    private List<@NotNull @Positive Long> bookIds;
+
+    public String getBorrowerUsername() {
+        return borrowerUsername;
+    }
+
+    public void setBorrowerUsername(String borrowerUsername) {
+        this.borrowerUsername = borrowerUsername;
+    }
+
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+
+    public void setBookIds(List<Long> bookIds) {
+        this.bookIds = bookIds;
+    }
+}
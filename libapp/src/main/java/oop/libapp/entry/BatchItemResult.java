@@ -0,0 +1,47 @@
+package oop.libapp.entry;
+
+/**
+ * Outcome of one item of a batch checkout or return: the entry it created or returned, or the
+ * reason it was rejected.
+ */
+public class BatchItemResult {
+
+    private Long requestedId;
+    private Long entryId;
+    private String error;
+
+    public BatchItemResult() {}
+    public BatchItemResult(Long requestedId, Long entryId, String error) {
+        this.requestedId = requestedId;
+        this.entryId = entryId;
+        this.error = error;
+    }
+
+    public static BatchItemResult succeeded(Long requestedId, Long entryId) {
+        return new BatchItemResult(requestedId, entryId, null);
+    }
+
+    public static BatchItemResult failed(Long requestedId, String error) {
+        return new BatchItemResult(requestedId, null, error);
+    }
+
+    public Long getRequestedId() {
+        return requestedId;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(Long entryId) {
+        this.entryId = entryId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isSucceeded() {
+        return error == null;
+    }
+}
@@ -0,0 +1,22 @@
+package oop.libapp.entry;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+public class BatchReturnDto {
+
+    @NotEmpty
+    @Size(max = BatchCheckoutDto.MAX_ITEMS)
+    private List<@NotNull @Positive Long> entryIds;
+
+    public List<Long> getEntryIds() {
+        return entryIds;
+    }
+
+    public void setEntryIds(List<Long> entryIds) {
+        this.entryIds = entryIds;
+    }
+}
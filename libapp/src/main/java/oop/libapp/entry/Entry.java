@@ -6,11 +6,29 @@ import oop.libapp.register.User;
 import javax.persistence.*;
 import java.util.Date;
 
+/**
+ * Listings load entries through the {@value #LISTING_GRAPH} graph, which joins the borrowed
+ * book with its info and the borrowing user into the page select. Their collections are left
+ * to the batch fetching declared on {@link Book} and {@link User}.
+ */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_entry_date_started", columnList = "dateStarted"),
+        @Index(name = "idx_entry_returned", columnList = "returned, id")
+})
+@NamedEntityGraph(name = Entry.LISTING_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "bookBorrowed", subgraph = "book"),
+                @NamedAttributeNode("userBorrowing")
+        },
+        subgraphs = @NamedSubgraph(name = "book", attributeNodes = @NamedAttributeNode("bookInfo")))
 public class Entry {
 
+    public static final String LISTING_GRAPH = "Entry.listing";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "entry_seq")
+    @SequenceGenerator(name = "entry_seq", sequenceName = "entry_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -0,0 +1,32 @@
+package oop.libapp.entry;
+
+import java.util.Date;
+
+/**
+ * Number of entries started and returned during one hour or day of an activity report.
+ */
+public class EntryActivity {
+
+    private Date periodStart;
+    private long checkedOut;
+    private long returned;
+
+    public EntryActivity() {}
+    public EntryActivity(Date periodStart, long checkedOut, long returned) {
+        this.periodStart = periodStart;
+        this.checkedOut = checkedOut;
+        this.returned = returned;
+    }
+
+    public Date getPeriodStart() {
+        return periodStart;
+    }
+
+    public long getCheckedOut() {
+        return checkedOut;
+    }
+
+    public long getReturned() {
+        return returned;
+    }
+}
@@ -1,85 +1,135 @@
 package oop.libapp.entry;
 
 import oop.libapp.exception.FailedFieldValidationException;
+import oop.libapp.exception.InvalidContinuationTokenException;
 import oop.libapp.exception.ResourceNotFoundException;
-import oop.libapp.book.Book;
-import oop.libapp.register.User;
-import oop.libapp.book.IBookService;
-import oop.libapp.register.IUserService;
+import oop.libapp.book.BookNotAvailableException;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 public class EntryController {
 
-    private IEntryService entryService;
-    private IBookService bookService;
-    private IUserService userService;
+    static final String NDJSON_VALUE = "application/x-ndjson";
 
-    // New Design Pattern Implementation
-    private FactoryEntry factoryEntry;
+    private IEntryService entryService;
 
     @Autowired
-    public EntryController(IEntryService entryService, IBookService bookService, IUserService userService) {
+    public EntryController(IEntryService entryService) {
         this.entryService = entryService;
-        this.bookService = bookService;
-        this.userService = userService;
-
-        // New Design Pattern Implementation
-        this.factoryEntry = FactoryEntry.getFactoryEntry();
     }
 
     @RequestMapping(value = "api/entries", method = RequestMethod.GET)
     public ResponseEntity<List<Entry>> getEntries(@RequestParam(value = "returned", required = false) Boolean returned,
                                                   @RequestParam(value = "bookTitle", required = false) String bookTitle,
                                                   @RequestParam(value = "username", required = false) String username,
-                                                  @RequestParam(value = "since", required = false) String since) {
-        List<Entry> entries;
+                                                  @RequestParam(value = "since", required = false) String since,
+                                                  @RequestParam(value = "continuation", required = false) String continuation,
+                                                  @RequestParam(value = "limit", required = false) Integer limit)
+            throws InvalidContinuationTokenException {
+        KeysetRequest page = KeysetRequest.of(continuation, limit);
+        KeysetPage<Entry> entries;
 
         if (returned != null) {
-            entries = entryService.findAllByReturned(returned);
+            entries = entryService.findAllByReturned(returned, page);
         } else if (bookTitle != null) {
-            entries = entryService.findAllByBookTitleContaining(bookTitle);
+            entries = entryService.findAllByBookTitleContaining(bookTitle, page);
         } else if (username != null) {
-            entries = entryService.findAllByUsername(username);
-        } else if (since != null) {
-            if (since.equalsIgnoreCase("day")) {
-                entries = entryService.findAllByAddedSince(IEntryService.AddedSince.DAY);
-            } else if (since.equalsIgnoreCase("week")) {
-                entries = entryService.findAllByAddedSince(IEntryService.AddedSince.WEEK);
-            } else if (since.equalsIgnoreCase("month")) {
-                entries = entryService.findAllByAddedSince(IEntryService.AddedSince.MONTH);
-            } else if (since.equalsIgnoreCase("year")) {
-                entries = entryService.findAllByAddedSince(IEntryService.AddedSince.YEAR);
-            } else {
-                entries = entryService.findAll();
-            }
+            entries = entryService.findAllByUsername(username, page);
+        } else if (since != null && parseSince(since) != null) {
+            entries = entryService.findAllByAddedSince(parseSince(since), page);
+        } else {
+            entries = entryService.findAll(page);
+        }
+        return entries.toResponseEntity();
+    }
+
+    /**
+     * Lists the loans that are still open, either those of one borrower, those of one book
+     * or all of them.
+     */
+    @RequestMapping(value = "api/entries/open", method = RequestMethod.GET)
+    public ResponseEntity<List<Entry>> getOpenEntries(@RequestParam(value = "username", required = false) String username,
+                                                      @RequestParam(value = "bookId", required = false) Long bookId,
+                                                      @RequestParam(value = "continuation", required = false) String continuation,
+                                                      @RequestParam(value = "limit", required = false) Integer limit)
+            throws InvalidContinuationTokenException, ResourceNotFoundException {
+        KeysetRequest page = KeysetRequest.of(continuation, limit);
+        KeysetPage<Entry> entries;
+
+        if (username != null) {
+            entries = entryService.findAllOpenByUsername(username, page);
+        } else if (bookId != null) {
+            entries = entryService.findAllOpenByBookId(bookId, page);
         } else {
-            entries = entryService.findAll();
+            entries = entryService.findAllOpen(page);
         }
-        return new ResponseEntity<>(entries, HttpStatus.OK);
+        return entries.toResponseEntity();
+    }
+
+    /**
+     * Reports how many entries were started and returned per hour during the last day, or per
+     * day during the last week, month or year. Unknown windows fall back to the last day.
+     */
+    @RequestMapping(value = "api/entries/activity", method = RequestMethod.GET)
+    public ResponseEntity<List<EntryActivity>> getActivity(@RequestParam(value = "since", defaultValue = "day") String since) {
+        IEntryService.AddedSince when = parseSince(since);
+        List<EntryActivity> activity = entryService.findActivity(when == null ? IEntryService.AddedSince.DAY : when);
+        return new ResponseEntity<>(activity, HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "api/entries/export", method = RequestMethod.GET)
+    public void exportEntries(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        entryService.exportAll(response.getOutputStream());
     }
 
     @RequestMapping(value = "api/entries", method = RequestMethod.POST)
     public ResponseEntity<Entry> postEntry(@Valid @RequestBody NewEntryDto newEntryDto, BindingResult result)
-            throws ResourceNotFoundException, FailedFieldValidationException {
+            throws ResourceNotFoundException, FailedFieldValidationException, BookNotAvailableException {
         if (result.hasErrors()) {
             throw new FailedFieldValidationException(result.getFieldErrors());
         }
-        Book book = bookService.findById(newEntryDto.getBorrowedBookId());
-        User user = userService.findUserByUsername(newEntryDto.getBorrowerUsername());
+        Entry savedEntry = entryService.checkOut(newEntryDto.getBorrowedBookId(), newEntryDto.getBorrowerUsername());
+        return new ResponseEntity<>(savedEntry, HttpStatus.CREATED);
+    }
 
-        // New Design Pattern Implementation
-        Entry entry = factoryEntry.getEntry(book, user);
+    /**
+     * Checks out a stack of books to one borrower. Every book gets its own result, so books
+     * that are missing or have no copy left do not stop the others from being checked out.
+     */
+    @RequestMapping(value = "api/entries/batch", method = RequestMethod.POST)
+    public ResponseEntity<List<BatchItemResult>> postEntries(@Valid @RequestBody BatchCheckoutDto batchCheckoutDto,
+                                                             BindingResult result)
+            throws ResourceNotFoundException, FailedFieldValidationException {
+        if (result.hasErrors()) {
+            throw new FailedFieldValidationException(result.getFieldErrors());
+        }
+        List<BatchItemResult> results = entryService.checkOutAll(batchCheckoutDto.getBookIds(),
+                batchCheckoutDto.getBorrowerUsername());
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
 
-        Entry savedEntry = entryService.save(entry);
-        return new ResponseEntity<>(savedEntry, HttpStatus.CREATED);
+    @RequestMapping(value = "api/entries/batch/return", method = RequestMethod.POST)
+    public ResponseEntity<List<BatchItemResult>> returnEntries(@Valid @RequestBody BatchReturnDto batchReturnDto,
+                                                               BindingResult result)
+            throws FailedFieldValidationException {
+        if (result.hasErrors()) {
+            throw new FailedFieldValidationException(result.getFieldErrors());
+        }
+        return new ResponseEntity<>(entryService.returnAll(batchReturnDto.getEntryIds()), HttpStatus.OK);
     }
 
     @RequestMapping(value = "api/entries/{id}", method = RequestMethod.GET)
@@ -106,10 +156,18 @@ public class EntryController {
 
         if (patchEntryDto.getReturned()) {
             // book was not returned yet
-            entry.returnBook();
+            entry = entryService.returnEntry(id);
         }
 
-        Entry savedEntry = entryService.save(entry);
-        return new ResponseEntity<>(savedEntry, HttpStatus.OK);
+        return new ResponseEntity<>(entry, HttpStatus.OK);
+    }
+
+    private static IEntryService.AddedSince parseSince(String since) {
+        for (IEntryService.AddedSince when : IEntryService.AddedSince.values()) {
+            if (when.name().equalsIgnoreCase(since)) {
+                return when;
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,57 @@
+package oop.libapp.entry;
+
+import java.util.Date;
+
+/**
+ * Flat, read-only view of an {@link Entry} written by the ledger export. It is built directly
+ * by the export query, so no {@link Entry}, book or user entity is ever loaded for it.
+ */
+public class EntryExportRow {
+
+    private final Long id;
+    private final Long bookId;
+    private final String bookTitle;
+    private final String username;
+    private final Date dateStarted;
+    private final Date dateFinished;
+    private final Boolean returned;
+
+    public EntryExportRow(Long id, Long bookId, String bookTitle, String username,
+                          Date dateStarted, Date dateFinished, Boolean returned) {
+        this.id = id;
+        this.bookId = bookId;
+        this.bookTitle = bookTitle;
+        this.username = username;
+        this.dateStarted = dateStarted;
+        this.dateFinished = dateFinished;
+        this.returned = returned;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Date getDateStarted() {
+        return dateStarted;
+    }
+
+    public Date getDateFinished() {
+        return dateFinished;
+    }
+
+    public Boolean getReturned() {
+        return returned;
+    }
+}
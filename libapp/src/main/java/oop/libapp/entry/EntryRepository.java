@@ -1,13 +1,24 @@
 package oop.libapp.entry;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface EntryRepository extends JpaRepository<Entry, Long> {
+    String EXPORT_FETCH_SIZE = "500";
+
     List<Entry> findAllByUserBorrowing_Username(String username);
     List<Entry> findAllByDateStartedAfter(Date date);
     List<Entry> findAllByReturned(Boolean returned);
@@ -15,6 +26,43 @@ public interface EntryRepository extends JpaRepository<Entry, Long> {
     @Query("select e from Entry e join e.bookBorrowed as b where b.title like :bookTitle")
     List<Entry> findAllByBookTitleLike(@Param("bookTitle") String bookTitle);
 
+    @EntityGraph(Entry.LISTING_GRAPH)
+    List<Entry> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+    @EntityGraph(Entry.LISTING_GRAPH)
+    List<Entry> findAllByUserBorrowing_UsernameAndIdGreaterThanOrderByIdAsc(String username, Long afterId, Pageable pageable);
+    @EntityGraph(Entry.LISTING_GRAPH)
+    List<Entry> findAllByDateStartedAfterAndIdGreaterThanOrderByIdAsc(Date date, Long afterId, Pageable pageable);
+    @EntityGraph(Entry.LISTING_GRAPH)
+    List<Entry> findAllByReturnedAndIdGreaterThanOrderByIdAsc(Boolean returned, Long afterId, Pageable pageable);
+
+    @EntityGraph(Entry.LISTING_GRAPH)
+    @Query("select e from Entry e join e.bookBorrowed as b where b.title like :bookTitle and e.id > :afterId order by e.id")
+    List<Entry> findAllByBookTitleLikeAndIdGreaterThan(@Param("bookTitle") String bookTitle,
+                                                       @Param("afterId") Long afterId, Pageable pageable);
+
+    @EntityGraph(Entry.LISTING_GRAPH)
+    List<Entry> findAllByIdIn(Collection<Long> ids);
+
+    @Query("select e.id, e.dateStarted from Entry e where e.dateStarted > :since")
+    List<Object[]> findIdsAndDatesStartedAfter(@Param("since") Date since);
+
+    @Query("select e.id, e.dateFinished from Entry e where e.dateFinished > :since")
+    List<Object[]> findIdsAndDatesFinishedAfter(@Param("since") Date since);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Entry e set e.returned = true, e.dateFinished = :dateFinished where e.id = :id and e.returned = false")
+    int markReturned(@Param("id") Long id, @Param("dateFinished") Date dateFinished);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id, e.bookBorrowed.id, e.returned from Entry e where e.id in :ids order by e.id")
+    List<Object[]> findReturnStatesForUpdateByIdIn(@Param("ids") Collection<Long> ids);
 
+    @Modifying(clearAutomatically = true)
+    @Query("update Entry e set e.returned = true, e.dateFinished = :dateFinished where e.id in :ids and e.returned = false")
+    int markAllReturned(@Param("ids") Collection<Long> ids, @Param("dateFinished") Date dateFinished);
 
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("select new oop.libapp.entry.EntryExportRow(e.id, b.id, b.title, u.username, e.dateStarted, e.dateFinished, e.returned) " +
+           "from Entry e left join e.bookBorrowed b left join e.userBorrowing u order by e.id")
+    Stream<EntryExportRow> streamAllForExport();
 }
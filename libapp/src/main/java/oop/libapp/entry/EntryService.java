@@ -1,22 +1,58 @@
 package oop.libapp.entry;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import oop.libapp.book.Book;
+import oop.libapp.book.BookNotAvailableException;
+import oop.libapp.book.IBookService;
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.register.IUserService;
+import oop.libapp.register.User;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EntryService implements IEntryService {
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private EntryRepository entryRepository;
+    private OpenLoanRepository openLoanRepository;
+    private IBookService bookService;
+    private IUserService userService;
+    private EntryTimeline entryTimeline;
+    private ObjectWriter exportWriter;
+
+    // New Design Pattern Implementation
+    private FactoryEntry factoryEntry;
 
     @Autowired
-    public EntryService(EntryRepository entryRepository) {
+    public EntryService(EntryRepository entryRepository, OpenLoanRepository openLoanRepository,
+                        IBookService bookService, IUserService userService,
+                        EntryTimeline entryTimeline, ObjectMapper objectMapper) {
         this.entryRepository = entryRepository;
+        this.openLoanRepository = openLoanRepository;
+        this.bookService = bookService;
+        this.userService = userService;
+        this.entryTimeline = entryTimeline;
+        this.exportWriter = objectMapper.writerFor(EntryExportRow.class);
+
+        // New Design Pattern Implementation
+        this.factoryEntry = FactoryEntry.getFactoryEntry();
     }
 
     @Override
@@ -25,49 +61,238 @@ public class EntryService implements IEntryService {
     }
 
     @Override
-    public List<Entry> findAllByBookTitleContaining(String title) {
+    @Transactional(rollbackFor = Exception.class)
+    public Entry checkOut(Long bookId, String username) throws ResourceNotFoundException, BookNotAvailableException {
+        User user = userService.findUserByUsername(username);
+        Book book = bookService.checkOutCopy(bookId);
+        Entry entry = entryRepository.save(factoryEntry.getEntry(book, user));
+        openLoanRepository.save(OpenLoan.of(entry));
+        afterCommit(() -> entryTimeline.started(entry.getId(), entry.getDateStarted()));
+        return entry;
+    }
+
+    /**
+     * Marks the entry as returned with a conditional update, so that of two concurrent returns
+     * of the same entry only one gives the copy back to the book.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Entry returnEntry(Long id) throws ResourceNotFoundException, BookAlreadyReturnedException {
+        Date dateFinished = new Date();
+        boolean marked = entryRepository.markReturned(id, dateFinished) == 1;
+        Entry entry = findById(id);
+        if (!marked) {
+            throw new BookAlreadyReturnedException("Book from this entry was already returned");
+        }
+        openLoanRepository.deleteByEntryIdIn(Collections.singleton(id));
+        bookService.returnCopy(entry.getBookBorrowed().getId());
+        afterCommit(() -> entryTimeline.returned(Collections.singleton(id), dateFinished));
+        // the counter update detached the entry, reload it with the book's current state
+        return findById(id);
+    }
+
+    /**
+     * Checks out every book of the list to the user in one transaction. The available copies
+     * of the books are read and locked with one query, a book requested more often than it has copies available is
+     * rejected for the extra requests, and the remaining entries are inserted in one batch.
+     * Results are in the order of the requested ids.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchItemResult> checkOutAll(List<Long> bookIds, String username) throws ResourceNotFoundException {
+        User user = userService.findUserByUsername(username);
+        Map<Long, Integer> availableCopies = bookService.lockAvailableCopies(bookIds);
+
+        List<BatchItemResult> results = new ArrayList<>(bookIds.size());
+        List<BatchItemResult> succeeded = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        Map<Long, Integer> copiesByBookId = new HashMap<>();
+        for (Long bookId : bookIds) {
+            Integer available = availableCopies.get(bookId);
+            if (available == null) {
+                results.add(BatchItemResult.failed(bookId, "Book with this id not found"));
+                continue;
+            }
+            int taken = copiesByBookId.getOrDefault(bookId, 0);
+            if (available <= taken) {
+                results.add(BatchItemResult.failed(bookId, "No copy of this book is available"));
+                continue;
+            }
+            copiesByBookId.put(bookId, taken + 1);
+            BatchItemResult result = BatchItemResult.succeeded(bookId, null);
+            results.add(result);
+            succeeded.add(result);
+            entries.add(factoryEntry.getEntry(bookService.getReference(bookId), user));
+        }
+        if (entries.isEmpty()) {
+            return results;
+        }
+
+        entryRepository.saveAll(entries);
+        openLoanRepository.saveAll(entries.stream().map(OpenLoan::of).collect(Collectors.toList()));
+        // the counter update clears the persistence context and only flushes the book table
+        // before it runs, so the batched entry and open loan inserts have to be sent first
+        entryRepository.flush();
+        bookService.takeCopies(copiesByBookId);
+        for (int i = 0; i < entries.size(); i++) {
+            succeeded.get(i).setEntryId(entries.get(i).getId());
+        }
+        afterCommit(() -> entries.forEach(entry -> entryTimeline.started(entry.getId(), entry.getDateStarted())));
+        return results;
+    }
+
+    /**
+     * Returns every entry of the list in one transaction: the entries and then their books
+     * are read and locked with one query each, both in id order like the other checkout and
+     * return paths, the entries are marked returned with one update, and the copies go back to
+     * their books with one update per distinct number of copies. An entry whose book has no
+     * copy checked out is reported instead of failing the batch. Results are in the order of
+     * the requested ids.
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<BatchItemResult> returnAll(List<Long> entryIds) {
+        Map<Long, Object[]> entries = new HashMap<>();
+        Set<Long> bookIds = new HashSet<>();
+        for (Object[] row : entryRepository.findReturnStatesForUpdateByIdIn(new HashSet<>(entryIds))) {
+            entries.put((Long) row[0], row);
+            bookIds.add((Long) row[1]);
+        }
+        Map<Long, Integer> checkedOutCopies = bookIds.isEmpty()
+                ? Collections.emptyMap() : bookService.lockCheckedOutCopies(bookIds);
+
+        List<BatchItemResult> results = new ArrayList<>(entryIds.size());
+        Set<Long> returned = new LinkedHashSet<>();
+        Map<Long, Integer> copiesByBookId = new HashMap<>();
+        for (Long entryId : entryIds) {
+            Object[] entry = entries.get(entryId);
+            if (entry == null) {
+                results.add(BatchItemResult.failed(entryId, "Entry with this id not found"));
+                continue;
+            }
+            if ((Boolean) entry[2] || returned.contains(entryId)) {
+                results.add(BatchItemResult.failed(entryId, "Book from this entry was already returned"));
+                continue;
+            }
+            Long bookId = (Long) entry[1];
+            int givenBack = copiesByBookId.getOrDefault(bookId, 0);
+            if (checkedOutCopies.getOrDefault(bookId, 0) <= givenBack) {
+                results.add(BatchItemResult.failed(entryId, "No copy of this book is checked out"));
+                continue;
+            }
+            returned.add(entryId);
+            copiesByBookId.put(bookId, givenBack + 1);
+            results.add(BatchItemResult.succeeded(entryId, entryId));
+        }
+        if (returned.isEmpty()) {
+            return results;
+        }
+
+        Date dateFinished = new Date();
+        entryRepository.markAllReturned(returned, dateFinished);
+        openLoanRepository.deleteByEntryIdIn(returned);
+        bookService.returnCopies(copiesByBookId);
+        afterCommit(() -> entryTimeline.returned(returned, dateFinished));
+        return results;
+    }
+
+    @Override
+    public KeysetPage<Entry> findAllByBookTitleContaining(String title, KeysetRequest page) {
         String likeTitle = "%" + title + "%";
-        return entryRepository.findAllByBookTitleLike(likeTitle);
+        List<Entry> entries = entryRepository.findAllByBookTitleLikeAndIdGreaterThan(likeTitle, page.getAfterId(), page.toPageable());
+        return KeysetPage.of(entries, page, Entry::getId);
     }
 
     @Override
-    public List<Entry> findAllByUsername(String username) {
-        return entryRepository.findAllByUserBorrowing_Username(username);
+    public KeysetPage<Entry> findAllByUsername(String username, KeysetRequest page) {
+        List<Entry> entries = entryRepository.findAllByUserBorrowing_UsernameAndIdGreaterThanOrderByIdAsc(
+                username, page.getAfterId(), page.toPageable());
+        return KeysetPage.of(entries, page, Entry::getId);
     }
 
+    /**
+     * Entries of the rolling windows are found by the {@link EntryTimeline}, the database is
+     * only used to load the page of entries by their primary keys.
+     */
     @Override
-    public List<Entry> findAllByAddedSince(AddedSince when) {
+    public KeysetPage<Entry> findAllByAddedSince(AddedSince when, KeysetRequest page) {
+        return findPageById(entryTimeline.findIdsStartedAfter(cutoff(when), page), page);
+    }
+
+    /**
+     * Counts the entries started and returned per hour during the last day, and per day
+     * during the longer windows.
+     */
+    @Override
+    public List<EntryActivity> findActivity(AddedSince when) {
+        long periodMs = when == AddedSince.DAY ? EntryTimeline.HOUR_MS : EntryTimeline.DAY_MS;
+        return entryTimeline.findActivitySince(cutoff(when), periodMs);
+    }
+
+    private static Date cutoff(AddedSince when) {
         Calendar calendar = Calendar.getInstance();
-        Date date = new Date();
         switch (when) {
             case DAY:
                 calendar.add(Calendar.HOUR, -24);
-                date = calendar.getTime();
                 break;
             case WEEK:
                 calendar.add(Calendar.DAY_OF_YEAR, -7);
-                date = calendar.getTime();
                 break;
             case MONTH:
                 calendar.add(Calendar.MONTH, -1);
-                date = calendar.getTime();
                 break;
             case YEAR:
                 calendar.add(Calendar.YEAR, -1);
-                date = calendar.getTime();
                 break;
         }
-        return entryRepository.findAllByDateStartedAfter(date);
+        return calendar.getTime();
+    }
+
+    @Override
+    public KeysetPage<Entry> findAllByReturned(Boolean returned, KeysetRequest page) {
+        if (!returned) {
+            return findAllOpen(page);
+        }
+        List<Entry> entries = entryRepository.findAllByReturnedAndIdGreaterThanOrderByIdAsc(
+                returned, page.getAfterId(), page.toPageable());
+        return KeysetPage.of(entries, page, Entry::getId);
+    }
+
+    /**
+     * Lists the entries that are not returned yet. Open loans are paged from their own table,
+     * so the cost depends on the page and not on the size of the history.
+     */
+    @Override
+    public KeysetPage<Entry> findAllOpen(KeysetRequest page) {
+        return findPageById(openLoanRepository.findEntryIdsAfter(page.getAfterId(), page.toPageable()), page);
+    }
+
+    @Override
+    public KeysetPage<Entry> findAllOpenByUsername(String username, KeysetRequest page) throws ResourceNotFoundException {
+        Long userId = userService.findUserByUsername(username).getId();
+        return findPageById(openLoanRepository.findEntryIdsByUserIdAfter(userId, page.getAfterId(), page.toPageable()), page);
     }
 
     @Override
-    public List<Entry> findAllByReturned(Boolean returned) {
-        return entryRepository.findAllByReturned(returned);
+    public KeysetPage<Entry> findAllOpenByBookId(Long bookId, KeysetRequest page) {
+        return findPageById(openLoanRepository.findEntryIdsByBookIdAfter(bookId, page.getAfterId(), page.toPageable()), page);
+    }
+
+    /**
+     * Brings the open loans in line with the entries at startup: fills the table the first
+     * time it exists, and repairs rows written by entry changes made outside the application.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcileOpenLoans() {
+        openLoanRepository.deleteClosed();
+        openLoanRepository.insertMissing();
     }
 
     @Override
-    public List<Entry> findAll() {
-        return entryRepository.findAll();
+    public KeysetPage<Entry> findAll(KeysetRequest page) {
+        List<Entry> entries = entryRepository.findAllByIdGreaterThanOrderByIdAsc(page.getAfterId(), page.toPageable());
+        return KeysetPage.of(entries, page, Entry::getId);
     }
 
     @Override
@@ -79,4 +304,48 @@ public class EntryService implements IEntryService {
             throw new ResourceNotFoundException("Entry with this id not found");
         }
     }
+
+    /**
+     * Writes every entry as one JSON object per line, in id order. Rows come from a database
+     * cursor as flat projections and are written as soon as they are read, so memory use does
+     * not depend on the size of the ledger.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(OutputStream outputStream) throws IOException {
+        OutputStream out = new BufferedOutputStream(outputStream, EXPORT_BUFFER_SIZE);
+        try (Stream<EntryExportRow> rows = entryRepository.streamAllForExport()) {
+            Iterator<EntryExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                out.write(exportWriter.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    // the timeline only learns about changes that were committed, a rolled back
+    // checkout or return leaves it as it was
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // the ids are a page read with KeysetRequest#toPageable(), ordered by id
+    private KeysetPage<Entry> findPageById(List<Long> ids, KeysetRequest page) {
+        if (ids.isEmpty()) {
+            return KeysetPage.lastPage(new ArrayList<>());
+        }
+        List<Entry> entries = entryRepository.findAllByIdIn(ids);
+        entries.sort(Comparator.comparing(Entry::getId));
+        return KeysetPage.of(entries, page, Entry::getId);
+    }
 }
@@ -0,0 +1,262 @@
+package oop.libapp.entry;
+
+import oop.libapp.util.KeysetRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Rolling record of the entries started and returned during the last
+ * {@value #RETENTION_DAYS} days, kept in hourly buckets. Every bucket holds the ids of the
+ * entries started and returned in it, sorted, so the rolling-window listings and the
+ * activity counts of the dashboards are answered without scanning the ledger. The buckets
+ * are read from the database at startup and updated after the transactions that check
+ * entries out and return them commit.
+ *
+ * Only the checkouts and returns handled by this node reach its buckets right away. Those
+ * handled by other nodes, and changes made to the ledger outside the application, are picked
+ * up by the periodic rebuild, so the listings and counts of a node lag behind the ledger by
+ * at most {@code libapp.entry.timeline-rebuild-interval-ms} (ten minutes by default).
+ * Deployments with several API nodes that need them sooner can shorten the interval, at the
+ * cost of reading the entries of the whole retention period per node per interval.
+ *
+ * Recording an entry twice has no effect, so an update may reach the timeline both through
+ * the rebuild queries and through {@link #started} or {@link #returned}.
+ */
+@Component
+public class EntryTimeline {
+
+    static final long HOUR_MS = 60 * 60 * 1000L;
+    static final long DAY_MS = 24 * HOUR_MS;
+    // the longest window is a year, plus a leap day
+    static final int RETENTION_DAYS = 367;
+    static final String REBUILD_INTERVAL_MS = "${libapp.entry.timeline-rebuild-interval-ms:600000}";
+
+    private final EntryRepository entryRepository;
+
+    // hour since the epoch to its bucket, guarded by this
+    private NavigableMap<Long, Bucket> buckets = new TreeMap<>();
+    // updates made while a rebuild is running, they may be missing from the rebuild queries
+    private List<Consumer<NavigableMap<Long, Bucket>>> updatesDuringRebuild;
+    // the startup rebuild and the scheduled ones must not run at the same time
+    private final Object rebuildLock = new Object();
+
+    @Autowired
+    public EntryTimeline(EntryRepository entryRepository) {
+        this.entryRepository = entryRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = REBUILD_INTERVAL_MS, fixedDelayString = REBUILD_INTERVAL_MS)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                updatesDuringRebuild = new ArrayList<>();
+            }
+
+            NavigableMap<Long, Bucket> rebuilt = new TreeMap<>();
+            try {
+                Date horizon = horizon(System.currentTimeMillis());
+                for (Object[] row : entryRepository.findIdsAndDatesStartedAfter(horizon)) {
+                    long dateStarted = ((Date) row[1]).getTime();
+                    bucket(rebuilt, dateStarted).addStarted((Long) row[0], dateStarted);
+                }
+                for (Object[] row : entryRepository.findIdsAndDatesFinishedAfter(horizon)) {
+                    bucket(rebuilt, ((Date) row[1]).getTime()).addReturned((Long) row[0]);
+                }
+            } catch (RuntimeException ex) {
+                // the current buckets stay in use, they already hold every update
+                synchronized (this) {
+                    updatesDuringRebuild = null;
+                }
+                throw ex;
+            }
+
+            synchronized (this) {
+                for (Consumer<NavigableMap<Long, Bucket>> update : updatesDuringRebuild) {
+                    update.accept(rebuilt);
+                }
+                updatesDuringRebuild = null;
+                buckets = rebuilt;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = HOUR_MS)
+    public synchronized void evictExpired() {
+        buckets.headMap(horizon(System.currentTimeMillis()).getTime() / HOUR_MS).clear();
+    }
+
+    public void started(Long entryId, Date dateStarted) {
+        long time = dateStarted.getTime();
+        update(buckets -> bucket(buckets, time).addStarted(entryId, time));
+    }
+
+    public void returned(Collection<Long> entryIds, Date dateFinished) {
+        long time = dateFinished.getTime();
+        update(buckets -> {
+            Bucket bucket = bucket(buckets, time);
+            entryIds.forEach(bucket::addReturned);
+        });
+    }
+
+    private synchronized void update(Consumer<NavigableMap<Long, Bucket>> update) {
+        update.accept(buckets);
+        if (updatesDuringRebuild != null) {
+            updatesDuringRebuild.add(update);
+        }
+    }
+
+    /**
+     * Returns the ids of the entries started after the given date that fall on the requested
+     * page, in ascending order and with one id more than the page size, like
+     * {@link KeysetRequest#slice}. The sorted ids of the buckets in the window are merged from
+     * the continuation id on, so a page costs one step per hour of the window and a heap
+     * operation per returned id, however many entries the window holds.
+     */
+    public List<Long> findIdsStartedAfter(Date since, KeysetRequest page) {
+        long sinceMs = since.getTime();
+        long sinceHour = sinceMs / HOUR_MS;
+        List<Long> ids = new ArrayList<>();
+        synchronized (this) {
+            PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+            for (Map.Entry<Long, Bucket> hour : buckets.tailMap(sinceHour, true).entrySet()) {
+                Bucket bucket = hour.getValue();
+                if (bucket.size == 0 || bucket.ids[bucket.size - 1] <= page.getAfterId()) {
+                    continue;
+                }
+                // only the first hour holds entries started before the date itself
+                Cursor cursor = new Cursor(bucket, bucket.positionAfter(page.getAfterId()),
+                        hour.getKey() == sinceHour ? sinceMs : Long.MIN_VALUE);
+                if (cursor.skipStartedBefore()) {
+                    cursors.add(cursor);
+                }
+            }
+            while (ids.size() <= page.getLimit() && !cursors.isEmpty()) {
+                Cursor cursor = cursors.poll();
+                ids.add(cursor.id());
+                cursor.position++;
+                if (cursor.skipStartedBefore()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the number of entries started and returned in every hour or day (in UTC) from
+     * the one containing the given date until now, oldest first. Periods without any
+     * activity are included with zero counts.
+     */
+    public List<EntryActivity> findActivitySince(Date since, long periodMs) {
+        long firstPeriod = since.getTime() / periodMs;
+        long lastPeriod = System.currentTimeMillis() / periodMs;
+        long[] checkedOut = new long[(int) (lastPeriod - firstPeriod + 1)];
+        long[] returned = new long[checkedOut.length];
+        synchronized (this) {
+            for (Map.Entry<Long, Bucket> hour : buckets.tailMap(firstPeriod * periodMs / HOUR_MS, true).entrySet()) {
+                int period = (int) (hour.getKey() * HOUR_MS / periodMs - firstPeriod);
+                if (period >= checkedOut.length) {
+                    break;
+                }
+                checkedOut[period] += hour.getValue().size;
+                returned[period] += hour.getValue().returnedSize;
+            }
+        }
+        List<EntryActivity> activity = new ArrayList<>(checkedOut.length);
+        for (int i = 0; i < checkedOut.length; i++) {
+            activity.add(new EntryActivity(new Date((firstPeriod + i) * periodMs), checkedOut[i], returned[i]));
+        }
+        return activity;
+    }
+
+    private static Date horizon(long now) {
+        return new Date(now - RETENTION_DAYS * DAY_MS);
+    }
+
+    private static Bucket bucket(NavigableMap<Long, Bucket> buckets, long time) {
+        return buckets.computeIfAbsent(time / HOUR_MS, hour -> new Bucket());
+    }
+
+    // ids arrive nearly in ascending order, so keeping them sorted rarely moves any
+    private static class Bucket {
+
+        private long[] ids = new long[4];
+        private long[] startedAt = new long[4];
+        private int size;
+        private long[] returnedIds = new long[4];
+        private int returnedSize;
+
+        private void addStarted(long id, long time) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                startedAt = Arrays.copyOf(startedAt, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(startedAt, position, startedAt, position + 1, size - position);
+            ids[position] = id;
+            startedAt[position] = time;
+            size++;
+        }
+
+        private void addReturned(long id) {
+            int position = Arrays.binarySearch(returnedIds, 0, returnedSize, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (returnedSize == returnedIds.length) {
+                returnedIds = Arrays.copyOf(returnedIds, returnedSize * 2);
+            }
+            System.arraycopy(returnedIds, position, returnedIds, position + 1, returnedSize - position);
+            returnedIds[position] = id;
+            returnedSize++;
+        }
+
+        private int positionAfter(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+    }
+
+    private static class Cursor implements Comparable<Cursor> {
+
+        private final Bucket bucket;
+        private final long startedAfter;
+        private int position;
+
+        private Cursor(Bucket bucket, int position, long startedAfter) {
+            this.bucket = bucket;
+            this.position = position;
+            this.startedAfter = startedAfter;
+        }
+
+        private long id() {
+            return bucket.ids[position];
+        }
+
+        // moves past the entries started before the window, returns whether an id is left
+        private boolean skipStartedBefore() {
+            while (position < bucket.size && bucket.startedAt[position] <= startedAfter) {
+                position++;
+            }
+            return position < bucket.size;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(id(), other.id());
+        }
+    }
+}
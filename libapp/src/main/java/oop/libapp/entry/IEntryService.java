@@ -1,7 +1,12 @@
 package oop.libapp.entry;
 
+import oop.libapp.book.BookNotAvailableException;
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface IEntryService {
@@ -11,10 +16,19 @@ public interface IEntryService {
     }
 
     Entry save(Entry entry);
-    List<Entry> findAllByBookTitleContaining(String title);
-    List<Entry> findAllByUsername(String username);
-    List<Entry> findAllByAddedSince(AddedSince when);
-    List<Entry> findAllByReturned(Boolean returned);
-    List<Entry> findAll();
+    Entry checkOut(Long bookId, String username) throws ResourceNotFoundException, BookNotAvailableException;
+    Entry returnEntry(Long id) throws ResourceNotFoundException, BookAlreadyReturnedException;
+    List<BatchItemResult> checkOutAll(List<Long> bookIds, String username) throws ResourceNotFoundException;
+    List<BatchItemResult> returnAll(List<Long> entryIds);
+    KeysetPage<Entry> findAllByBookTitleContaining(String title, KeysetRequest page);
+    KeysetPage<Entry> findAllByUsername(String username, KeysetRequest page);
+    KeysetPage<Entry> findAllByAddedSince(AddedSince when, KeysetRequest page);
+    List<EntryActivity> findActivity(AddedSince when);
+    KeysetPage<Entry> findAllByReturned(Boolean returned, KeysetRequest page);
+    KeysetPage<Entry> findAllOpen(KeysetRequest page);
+    KeysetPage<Entry> findAllOpenByUsername(String username, KeysetRequest page) throws ResourceNotFoundException;
+    KeysetPage<Entry> findAllOpenByBookId(Long bookId, KeysetRequest page);
+    KeysetPage<Entry> findAll(KeysetRequest page);
     Entry findById(Long id) throws ResourceNotFoundException;
+    void exportAll(OutputStream outputStream) throws IOException;
 }
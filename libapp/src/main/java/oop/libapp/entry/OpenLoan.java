@@ -0,0 +1,76 @@
+package oop.libapp.entry;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * One row per entry that is not returned yet, kept in the same transactions that check books
+ * out and return them. The open loans of a user or a book are read from its own indexes,
+ * without touching the entry history, which grows with every loan ever made.
+ *
+ * The row shares the id of its entry, and rows are only ever inserted and deleted, so saving
+ * one persists it without first looking for an existing row.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_open_loan_user", columnList = "userId, entryId"),
+        @Index(name = "idx_open_loan_book", columnList = "bookId, entryId")
+})
+public class OpenLoan implements Persistable<Long> {
+
+    @Id
+    private Long entryId;
+
+    private Long bookId;
+    private Long userId;
+    private Date dateStarted;
+
+    @Transient
+    private boolean loaded;
+
+    public OpenLoan() {}
+    public OpenLoan(Long entryId, Long bookId, Long userId, Date dateStarted) {
+        this.entryId = entryId;
+        this.bookId = bookId;
+        this.userId = userId;
+        this.dateStarted = dateStarted;
+    }
+
+    public static OpenLoan of(Entry entry) {
+        return new OpenLoan(entry.getId(), entry.getBookBorrowed().getId(),
+                entry.getUserBorrowing().getId(), entry.getDateStarted());
+    }
+
+    @PostLoad
+    void markLoaded() {
+        loaded = true;
+    }
+
+    @Override
+    public Long getId() {
+        return entryId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !loaded;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Date getDateStarted() {
+        return dateStarted;
+    }
+}
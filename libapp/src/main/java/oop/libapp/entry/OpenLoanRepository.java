@@ -0,0 +1,38 @@
+package oop.libapp.entry;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OpenLoanRepository extends JpaRepository<OpenLoan, Long> {
+
+    @Query("select l.entryId from OpenLoan l where l.entryId > :afterId order by l.entryId")
+    List<Long> findEntryIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select l.entryId from OpenLoan l where l.userId = :userId and l.entryId > :afterId order by l.entryId")
+    List<Long> findEntryIdsByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select l.entryId from OpenLoan l where l.bookId = :bookId and l.entryId > :afterId order by l.entryId")
+    List<Long> findEntryIdsByBookIdAfter(@Param("bookId") Long bookId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from OpenLoan l where l.entryId in :entryIds")
+    int deleteByEntryIdIn(@Param("entryIds") Collection<Long> entryIds);
+
+    // both reconciling statements only visit open loans, through the primary key and idx_entry_returned
+    @Modifying
+    @Query("delete from OpenLoan l where not exists " +
+           "(select e.id from Entry e where e.id = l.entryId and e.returned = false)")
+    int deleteClosed();
+
+    @Modifying
+    @Query("insert into OpenLoan (entryId, bookId, userId, dateStarted) " +
+           "select e.id, e.bookBorrowed.id, e.userBorrowing.id, e.dateStarted from Entry e " +
+           "where e.returned = false and not exists (select l.entryId from OpenLoan l where l.entryId = e.id)")
+    int insertMissing();
+}
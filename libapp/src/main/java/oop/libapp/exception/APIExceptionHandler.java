@@ -1,11 +1,16 @@
 package oop.libapp.exception;
 
+import oop.libapp.book.BookNotAvailableException;
+import oop.libapp.bookimport.ImportJobNotResumableException;
 import oop.libapp.entry.BookAlreadyReturnedException;
 import oop.libapp.message.IErrorMessage;
 import oop.libapp.register.exception.NewUserValidationException;
 import oop.libapp.register.exception.UsernameAlreadyTakenException;
+import oop.libapp.security.password.PasswordHashingRejectedException;
 import oop.libapp.token.FailedTokenGenerationException;
+import oop.libapp.token.InvalidTokenException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -49,6 +54,24 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidContinuationTokenException.class)
+    protected ResponseEntity<IErrorMessage> handleInvalidContinuationTokenException(InvalidContinuationTokenException ex, WebRequest request) {
+        IErrorMessage errorMessage = getErrorMessage();
+        errorMessage.addSingleMessage(ex.getMessage());
+        errorMessage.setTimestamp(new Date());
+        errorMessage.setPath(request.getDescription(false));
+        return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(MalformedCsvException.class)
+    protected ResponseEntity<IErrorMessage> handleMalformedCsvException(MalformedCsvException ex, WebRequest request) {
+        IErrorMessage errorMessage = getErrorMessage();
+        errorMessage.addSingleMessage(ex.getMessage());
+        errorMessage.setTimestamp(new Date());
+        errorMessage.setPath(request.getDescription(false));
+        return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(NewUserValidationException.class)
     protected ResponseEntity<IErrorMessage> handleNewUserValidationException(NewUserValidationException ex, WebRequest request) {
         IErrorMessage errorMessage = getErrorMessage();
@@ -76,6 +99,15 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidTokenException.class)
+    protected ResponseEntity<IErrorMessage> handleInvalidTokenException(InvalidTokenException ex, WebRequest request) {
+        IErrorMessage errorMessage = getErrorMessage();
+        errorMessage.setTimestamp(new Date());
+        errorMessage.setMessages(Arrays.asList(ex.getMessage()));
+        errorMessage.setPath(request.getDescription(false));
+        return new ResponseEntity<>(errorMessage, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(BookAlreadyReturnedException.class)
     protected ResponseEntity<IErrorMessage> handleBookAlreadyReturnedException(BookAlreadyReturnedException ex, WebRequest request) {
         IErrorMessage errorMessage = getErrorMessage();
@@ -84,4 +116,33 @@ public class APIExceptionHandler extends ResponseEntityExceptionHandler {
         errorMessage.setPath(request.getDescription(false));
         return new ResponseEntity<>(errorMessage, HttpStatus.CONFLICT);
     }
+
+    @ExceptionHandler(ImportJobNotResumableException.class)
+    protected ResponseEntity<IErrorMessage> handleImportJobNotResumableException(ImportJobNotResumableException ex, WebRequest request) {
+        IErrorMessage errorMessage = getErrorMessage();
+        errorMessage.setMessages(Arrays.asList(ex.getMessage()));
+        errorMessage.setTimestamp(new Date());
+        errorMessage.setPath(request.getDescription(false));
+        return new ResponseEntity<>(errorMessage, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(BookNotAvailableException.class)
+    protected ResponseEntity<IErrorMessage> handleBookNotAvailableException(BookNotAvailableException ex, WebRequest request) {
+        IErrorMessage errorMessage = getErrorMessage();
+        errorMessage.setMessages(Arrays.asList(ex.getMessage()));
+        errorMessage.setTimestamp(new Date());
+        errorMessage.setPath(request.getDescription(false));
+        return new ResponseEntity<>(errorMessage, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    protected ResponseEntity<IErrorMessage> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex, WebRequest request) {
+        IErrorMessage errorMessage = getErrorMessage();
+        errorMessage.setMessages(Arrays.asList(ex.getMessage()));
+        errorMessage.setTimestamp(new Date());
+        errorMessage.setPath(request.getDescription(false));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(PasswordHashingRejectedException.RETRY_AFTER_SECONDS));
+        return new ResponseEntity<>(errorMessage, headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
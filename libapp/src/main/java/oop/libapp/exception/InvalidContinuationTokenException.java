@@ -0,0 +1,7 @@
+package oop.libapp.exception;
+
+public class InvalidContinuationTokenException extends Exception {
+    public InvalidContinuationTokenException(String s) {
+        super(s);
+    }
+}
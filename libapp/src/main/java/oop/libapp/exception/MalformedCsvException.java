@@ -0,0 +1,8 @@
+package oop.libapp.exception;
+
+public class MalformedCsvException extends Exception {
+
+    public MalformedCsvException(String msg) {
+        super(msg);
+    }
+}
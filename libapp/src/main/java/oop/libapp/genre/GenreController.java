@@ -1,7 +1,9 @@
 package oop.libapp.genre;
 
 import oop.libapp.exception.FailedFieldValidationException;
+import oop.libapp.exception.InvalidContinuationTokenException;
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.KeysetRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -22,9 +24,11 @@ public class GenreController {
     }
 
     @RequestMapping(value = "api/genres", method = RequestMethod.GET)
-    public ResponseEntity<List<Genre>> getGenres() {
-        List<Genre> genres = genreService.findAll();
-        return new ResponseEntity<>(genres, HttpStatus.OK);
+    public ResponseEntity<List<Genre>> getGenres(@RequestParam(value = "continuation", required = false) String continuation,
+                                                 @RequestParam(value = "limit", required = false) Integer limit)
+            throws InvalidContinuationTokenException {
+        KeysetRequest page = KeysetRequest.of(continuation, limit);
+        return genreService.findAll(page).toResponseEntity();
     }
 
     @RequestMapping(value = "api/genres/{id}", method = RequestMethod.GET)
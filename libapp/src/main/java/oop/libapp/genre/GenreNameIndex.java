@@ -0,0 +1,27 @@
+package oop.libapp.genre;
+
+import oop.libapp.util.TrigramIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+@Component
+public class GenreNameIndex extends TrigramIndex {
+
+    private final GenreRepository genreRepository;
+
+    @Autowired
+    public GenreNameIndex(GenreRepository genreRepository) {
+        this.genreRepository = genreRepository;
+    }
+
+    // the first build completes before the server accepts requests, names saved or deleted by
+    // another node are found here after the next rebuild
+    @PostConstruct
+    @Scheduled(initialDelayString = REBUILD_INTERVAL_MS, fixedDelayString = REBUILD_INTERVAL_MS)
+    public void rebuild() {
+        rebuild(genreRepository::findAllIdsAndNames);
+    }
+}
@@ -1,6 +1,25 @@
 package oop.libapp.genre;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 
 public interface GenreRepository extends JpaRepository<Genre, Long> {
+
+    // catalog pages change rarely, the query cache serves them until the table is written to
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+    List<Genre> findAllByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    @Query("select g.id, g.name from Genre g")
+    List<Object[]> findAllIdsAndNames();
+
+    // the names have to be lower case, they match regardless of case like MySQL's default collation
+    @Query("select g.id, g.name from Genre g where lower(g.name) in :names")
+    List<Object[]> findIdsAndNamesByLowerCaseNameIn(@Param("names") Collection<String> names);
 }
@@ -1,30 +1,45 @@
 package oop.libapp.genre;
 
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.CachedEntityLoader;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class GenreService implements IGenreService {
 
     private GenreRepository genreRepository;
+    private GenreNameIndex genreNameIndex;
+    private CachedEntityLoader cachedEntityLoader;
 
     @Autowired
-    public GenreService(GenreRepository genreRepository) {
+    public GenreService(GenreRepository genreRepository, GenreNameIndex genreNameIndex,
+                        CachedEntityLoader cachedEntityLoader) {
         this.genreRepository = genreRepository;
+        this.genreNameIndex = genreNameIndex;
+        this.cachedEntityLoader = cachedEntityLoader;
     }
 
     @Override
-    public List<Genre> findAll() {
-        return genreRepository.findAll();
+    public KeysetPage<Genre> findAll(KeysetRequest page) {
+        List<Genre> genres = genreRepository.findAllByIdGreaterThanOrderByIdAsc(page.getAfterId(), page.toPageable());
+        return KeysetPage.of(genres, page, Genre::getId);
     }
 
     @Override
     public Genre save(Genre genre) {
-        return genreRepository.save(genre);
+        Genre savedGenre = genreRepository.save(genre);
+        genreNameIndex.put(savedGenre.getId(), savedGenre.getName());
+        return savedGenre;
+    }
+
+    @Override
+    public List<Long> findIdsByNameContaining(String name) {
+        return genreNameIndex.search(name);
     }
 
     @Override
@@ -37,12 +52,24 @@ public class GenreService implements IGenreService {
         }
     }
 
+    /**
+     * Loads all the given genres and returns them in the order of the ids, reading the ones in the
+     * second-level cache from it. If any id does not exist, all of the missing ids are reported together.
+     */
+    @Override
+    public List<Genre> findAllById(Collection<Long> ids) throws ResourceNotFoundException {
+        return cachedEntityLoader.findAllById(Genre.class, ids, Genre::getId);
+    }
+
     @Override
     public boolean deleteById(Long id) throws ResourceNotFoundException {
         boolean exists = genreRepository.existsById(id);
         if (exists) {
             genreRepository.deleteById(id);
             exists = genreRepository.existsById(id);
+            if (!exists) {
+                genreNameIndex.remove(id);
+            }
         } else {
             throw new ResourceNotFoundException("Genre with this id not found");
         }
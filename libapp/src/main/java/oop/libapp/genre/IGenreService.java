@@ -1,12 +1,17 @@
 package oop.libapp.genre;
 
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface IGenreService {
-    List<Genre> findAll();
+    KeysetPage<Genre> findAll(KeysetRequest page);
     Genre save(Genre genre);
+    List<Long> findIdsByNameContaining(String name);
     Genre findById(Long id) throws ResourceNotFoundException;
+    List<Genre> findAllById(Collection<Long> ids) throws ResourceNotFoundException;
     boolean deleteById(Long id) throws ResourceNotFoundException;
 }
@@ -0,0 +1,44 @@
+package oop.libapp.register;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkRegistrationResult {
+
+    private int registered;
+    private List<String> alreadyTaken = new ArrayList<>();
+    private List<String> duplicates = new ArrayList<>();
+    private List<String> invalid = new ArrayList<>();
+
+    public int getRegistered() {
+        return registered;
+    }
+
+    public void setRegistered(int registered) {
+        this.registered = registered;
+    }
+
+    public List<String> getAlreadyTaken() {
+        return alreadyTaken;
+    }
+
+    public void addAlreadyTaken(String username) {
+        alreadyTaken.add(username);
+    }
+
+    public List<String> getDuplicates() {
+        return duplicates;
+    }
+
+    public void addDuplicate(String username) {
+        duplicates.add(username);
+    }
+
+    public List<String> getInvalid() {
+        return invalid;
+    }
+
+    public void addInvalid(String message) {
+        invalid.add(message);
+    }
+}
@@ -0,0 +1,38 @@
+package oop.libapp.register;
+
+import org.hibernate.validator.constraints.Length;
+
+import javax.validation.constraints.NotNull;
+
+public class BulkUserDto {
+
+    @NotNull
+    @Length(min = 4, max = 50)
+    private String username;
+
+    @NotNull
+    @Length(min = 6, max = 100)
+    private String password;
+
+    public BulkUserDto() {}
+    public BulkUserDto(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+}
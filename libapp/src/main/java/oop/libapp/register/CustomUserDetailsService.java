@@ -1,30 +1,86 @@
 package oop.libapp.register;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import oop.libapp.exception.ResourceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    static final long USER_DETAILS_CACHE_SIZE = 10_000;
+    static final long USER_DETAILS_CACHE_TTL_MINUTES = 10;
+
     private IUserService userService;
 
+    // username -> snapshot of the user's credentials and authorities, detached from the entity,
+    // so that authenticating a request does not have to load the user and its authorities
+    private final Cache<String, UserDetails> userDetails = Caffeine.newBuilder()
+            .maximumSize(USER_DETAILS_CACHE_SIZE)
+            .expireAfterWrite(USER_DETAILS_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
+
     @Autowired
     public CustomUserDetailsService(IUserService userService) {
         this.userService = userService;
     }
 
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        userDetails.invalidate(event.getUsername());
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user;
+        UserDetails snapshot;
+        // the snapshot is loaded inside the cache's atomic compute, so an invalidation caused by a
+        // password or role change waits for a load in flight and removes it, instead of being
+        // overwritten by it
         try {
-            user = userService.findUserByUsername(username);
-        } catch (ResourceNotFoundException ex) {
+            snapshot = userDetails.get(username, this::loadSnapshot);
+        } catch (UnknownUserException ex) {
             throw new UsernameNotFoundException("Username not found");
         }
-        return user;
+        // callers may erase the credentials of what they get, so the cached snapshot is never handed out
+        return org.springframework.security.core.userdetails.User.withUserDetails(snapshot).build();
+    }
+
+    private UserDetails loadSnapshot(String username) {
+        try {
+            return snapshotOf(userService.findUserByUsername(username));
+        } catch (ResourceNotFoundException ex) {
+            throw new UnknownUserException(ex);
+        }
+    }
+
+    private static UserDetails snapshotOf(User user) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (GrantedAuthority authority : user.getAuthorities()) {
+            authorities.add(new SimpleGrantedAuthority(authority.getAuthority()));
+        }
+        return org.springframework.security.core.userdetails.User
+                .withUsername(user.getUsername())
+                .password(user.getPassword())
+                .authorities(authorities)
+                .build();
+    }
+
+    // carries the checked exception of a failed load out of the cache
+    private static class UnknownUserException extends RuntimeException {
+
+        UnknownUserException(ResourceNotFoundException cause) {
+            super(cause);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package oop.libapp.register;
+
+import oop.libapp.exception.MalformedCsvException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+public interface IUserProvisioningService {
+    BulkRegistrationResult registerAll(List<BulkUserDto> users);
+    BulkRegistrationResult registerAllFromCsv(Reader csv) throws IOException, MalformedCsvException;
+}
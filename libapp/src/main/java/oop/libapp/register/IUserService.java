@@ -2,8 +2,11 @@ package oop.libapp.register;
 
 import oop.libapp.exception.ResourceNotFoundException;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface IUserService {
     User save(User user);
+    CompletableFuture<User> saveAsync(User user);
     User findUserByUsername(String username) throws ResourceNotFoundException;
     User findById(Long id) throws ResourceNotFoundException;
     String findSecretByUsername(String username) throws ResourceNotFoundException;
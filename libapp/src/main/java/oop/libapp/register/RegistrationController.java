@@ -1,5 +1,6 @@
 package oop.libapp.register;
 
+import oop.libapp.exception.MalformedCsvException;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.register.exception.NewUserValidationException;
 import oop.libapp.register.exception.UsernameAlreadyTakenException;
@@ -9,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -20,7 +22,10 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class RegistrationController {
@@ -28,6 +33,7 @@ public class RegistrationController {
 	private IUserService userService;
 	private IAuthorityService authorityService;
 	private ISecretGenerator secretGenerator;
+	private IUserProvisioningService userProvisioningService;
 
 	// New Design Pattern Implementation
 	private FactoryUser factoryUser;
@@ -35,10 +41,11 @@ public class RegistrationController {
 
 	@Autowired
 	public RegistrationController(IUserService userService, IAuthorityService authorityService,
-			ISecretGenerator secretGenerator) {
+			ISecretGenerator secretGenerator, IUserProvisioningService userProvisioningService) {
 		this.userService = userService;
 		this.authorityService = authorityService;
 		this.secretGenerator = secretGenerator;
+		this.userProvisioningService = userProvisioningService;
 
 		// New Design Pattern Implementation
 		this.factoryUser = FactoryUser.getFactoryUser();
@@ -46,7 +53,7 @@ public class RegistrationController {
 	}
 
 	@RequestMapping(value = "users/register", method = RequestMethod.POST)
-	public ResponseEntity<?> registerUser(
+	public CompletableFuture<ResponseEntity<?>> registerUser(
 			@Valid @RequestHeader(name = "Authorization", required = false) @RequestBody NewUserDto newUserDto,
 			BindingResult result) throws NewUserValidationException, UsernameAlreadyTakenException {
 
@@ -86,15 +93,32 @@ public class RegistrationController {
 			user.setAuthorities(new HashSet<>(Arrays.asList(authority)));
 			user.setSecret(secretGenerator.generateSecret());
 
-			User savedUser = userService.save(user);
-			if (savedUser != null) {
-				response.put("isRegistered", true);
-			} else {
-				response.put("isRegistered", false);
-			}
-			return new ResponseEntity<>(response, HttpStatus.CREATED);
+			// the password is hashed off the request thread
+			return userService.saveAsync(user).thenApply(savedUser -> {
+				if (savedUser != null) {
+					response.put("isRegistered", true);
+				} else {
+					response.put("isRegistered", false);
+				}
+				return new ResponseEntity<>(response, HttpStatus.CREATED);
+			});
 		}
 
 		throw new UsernameAlreadyTakenException("This username is already taken");
 	}
+
+	@RequestMapping(value = "users/register/bulk", method = RequestMethod.POST,
+			consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<BulkRegistrationResult> registerUsers(@RequestBody List<BulkUserDto> users) {
+		return new ResponseEntity<>(userProvisioningService.registerAll(users), HttpStatus.CREATED);
+	}
+
+	/**
+	 * Registers the users of a CSV document whose header row names a username and a password column.
+	 */
+	@RequestMapping(value = "users/register/bulk", method = RequestMethod.POST, consumes = "text/csv")
+	public ResponseEntity<BulkRegistrationResult> registerUsersFromCsv(Reader body)
+			throws IOException, MalformedCsvException {
+		return new ResponseEntity<>(userProvisioningService.registerAllFromCsv(body), HttpStatus.CREATED);
+	}
 }
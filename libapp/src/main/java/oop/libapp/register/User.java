@@ -1,6 +1,8 @@
 package oop.libapp.register;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import oop.libapp.util.KeysetRequest;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import javax.persistence.*;
@@ -10,7 +12,8 @@ import java.util.Set;
 public class User implements UserDetails {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     private String username;
@@ -22,6 +25,7 @@ public class User implements UserDetails {
     private String secret;
 
     @JsonIgnore
+    @BatchSize(size = KeysetRequest.DEFAULT_LIMIT)
     @ManyToMany(fetch = FetchType.EAGER, cascade = CascadeType.PERSIST)
     @JoinTable(
             name="user_authorities",
@@ -0,0 +1,195 @@
+package oop.libapp.register;
+
+import oop.libapp.exception.MalformedCsvException;
+import oop.libapp.security.password.IAsyncPasswordEncoder;
+import oop.libapp.security.secret.ISecretGenerator;
+import oop.libapp.util.CsvReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+/**
+ * Registers many users at once. Usernames are checked against the database with one set based
+ * query per chunk and passwords are hashed in parallel on the password hashing pool. Users are
+ * then persisted in chunks that are flushed and cleared, so Hibernate sends their rows and
+ * authority links as JDBC batches and the persistence context never holds more than one chunk.
+ */
+@Service
+public class UserProvisioningService implements IUserProvisioningService {
+
+    static final int QUERY_CHUNK_SIZE = 1000;
+    static final int INSERT_BATCH_SIZE = 500;
+
+    private static final String DEFAULT_AUTHORITY = "ROLE_USER";
+
+    private UserRepository userRepository;
+    private AuthorityRepository authorityRepository;
+    private IAsyncPasswordEncoder passwordEncoder;
+    private ISecretGenerator secretGenerator;
+    private Validator validator;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    // New Design Pattern Implementation
+    private FactoryUser factoryUser;
+    private FactoryAuthority factoryAuthority;
+
+    @Autowired
+    public UserProvisioningService(UserRepository userRepository, AuthorityRepository authorityRepository,
+                                   IAsyncPasswordEncoder passwordEncoder, ISecretGenerator secretGenerator,
+                                   Validator validator, EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.secretGenerator = secretGenerator;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // New Design Pattern Implementation
+        this.factoryUser = FactoryUser.getFactoryUser();
+        this.factoryAuthority = FactoryAuthority.getFactoryAuthority();
+    }
+
+    @Override
+    public BulkRegistrationResult registerAll(List<BulkUserDto> users) {
+        BulkRegistrationResult result = new BulkRegistrationResult();
+
+        Map<String, BulkUserDto> candidates = new LinkedHashMap<>();
+        int row = 0;
+        for (BulkUserDto user : users) {
+            row++;
+            Set<ConstraintViolation<BulkUserDto>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                for (ConstraintViolation<BulkUserDto> violation : violations) {
+                    result.addInvalid("row " + row + ": " + violation.getPropertyPath() + " " + violation.getMessage());
+                }
+            } else if (candidates.putIfAbsent(user.getUsername(), user) != null) {
+                // the first row with the username is registered, the later ones are reported
+                result.addDuplicate(user.getUsername());
+            }
+        }
+
+        for (String taken : findExistingUsernames(candidates.keySet())) {
+            candidates.remove(taken);
+            result.addAlreadyTaken(taken);
+        }
+        if (candidates.isEmpty()) {
+            return result;
+        }
+
+        // hashing takes by far the longest, so it is done before any transaction is opened
+        List<BulkUserDto> toRegister = new ArrayList<>(candidates.values());
+        List<String> rawPasswords = new ArrayList<>(toRegister.size());
+        for (BulkUserDto user : toRegister) {
+            rawPasswords.add(user.getPassword());
+        }
+        List<String> encodedPasswords = passwordEncoder.encodeAll(rawPasswords);
+
+        List<User> newUsers = new ArrayList<>(toRegister.size());
+        for (int i = 0; i < toRegister.size(); i++) {
+            // New Design Pattern Implementation
+            User user = factoryUser.getUser();
+            user.setUsername(toRegister.get(i).getUsername());
+            user.setPassword(encodedPasswords.get(i));
+            user.setSecret(secretGenerator.generateSecret());
+            newUsers.add(user);
+        }
+
+        Integer registered = transactionTemplate.execute(status -> insertUsers(newUsers, result));
+        result.setRegistered(registered);
+        return result;
+    }
+
+    /**
+     * Registers the users of a CSV document whose header row names a username and a password column.
+     */
+    @Override
+    public BulkRegistrationResult registerAllFromCsv(Reader csv) throws IOException, MalformedCsvException {
+        CsvReader csvReader = new CsvReader(csv);
+        List<String> header = csvReader.readRecord();
+        if (header == null) {
+            throw new MalformedCsvException("CSV document is empty");
+        }
+        int usernameColumn = header.indexOf("username");
+        int passwordColumn = header.indexOf("password");
+        if (usernameColumn < 0 || passwordColumn < 0) {
+            throw new MalformedCsvException("CSV header must contain username and password columns");
+        }
+
+        List<BulkUserDto> users = new ArrayList<>();
+        List<String> record;
+        while ((record = csvReader.readRecord()) != null) {
+            if (record.size() != header.size()) {
+                throw new MalformedCsvException("Record " + csvReader.getRecordNumber() + " has " + record.size()
+                        + " fields, expected " + header.size());
+            }
+            users.add(new BulkUserDto(record.get(usernameColumn), record.get(passwordColumn)));
+        }
+        return registerAll(users);
+    }
+
+    private int insertUsers(List<User> users, BulkRegistrationResult result) {
+        // usernames may have been registered while the passwords were hashed
+        Set<String> takenMeanwhile = new HashSet<>(findExistingUsernames(usernamesOf(users)));
+        if (!takenMeanwhile.isEmpty()) {
+            List<User> remaining = new ArrayList<>(users.size());
+            for (User user : users) {
+                if (takenMeanwhile.contains(user.getUsername())) {
+                    result.addAlreadyTaken(user.getUsername());
+                } else {
+                    remaining.add(user);
+                }
+            }
+            users = remaining;
+        }
+
+        Long authorityId = findOrCreateDefaultAuthority().getId();
+        for (int from = 0; from < users.size(); from += INSERT_BATCH_SIZE) {
+            // the previous chunk was cleared, so the authority is looked up again for this one
+            Authority authority = entityManager.getReference(Authority.class, authorityId);
+            for (User user : users.subList(from, Math.min(from + INSERT_BATCH_SIZE, users.size()))) {
+                user.setAuthorities(new HashSet<>(Collections.singletonList(authority)));
+                entityManager.persist(user);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        }
+        return users.size();
+    }
+
+    private Authority findOrCreateDefaultAuthority() {
+        Authority authority = authorityRepository.findAuthorityByAuthority(DEFAULT_AUTHORITY);
+        if (authority == null) {
+            // New Design Pattern Implementation
+            authority = authorityRepository.save(factoryAuthority.getAuthority(DEFAULT_AUTHORITY));
+        }
+        return authority;
+    }
+
+    private List<String> findExistingUsernames(Collection<String> usernames) {
+        List<String> existing = new ArrayList<>();
+        List<String> all = new ArrayList<>(usernames);
+        for (int from = 0; from < all.size(); from += QUERY_CHUNK_SIZE) {
+            existing.addAll(userRepository.findUsernamesIn(all.subList(from, Math.min(from + QUERY_CHUNK_SIZE, all.size()))));
+        }
+        return existing;
+    }
+
+    private static List<String> usernamesOf(List<User> users) {
+        List<String> usernames = new ArrayList<>(users.size());
+        for (User user : users) {
+            usernames.add(user.getUsername());
+        }
+        return usernames;
+    }
+}
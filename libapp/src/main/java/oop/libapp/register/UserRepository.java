@@ -4,9 +4,15 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface UserRepository extends JpaRepository<User, Long> {
     User findUserByUsername(String username);
 
     @Query("Select u.secret from User u where u.username=:username")
     String findSecretByUsername(@Param("username")String username);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findUsernamesIn(@Param("usernames") Collection<String> usernames);
 }
@@ -1,22 +1,41 @@
 package oop.libapp.register;
 
 import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.security.password.IAsyncPasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class UserService implements IUserService {
 
     private UserRepository userRepository;
-    private PasswordEncoder passwordEncoder;
+    private AuthorityRepository authorityRepository;
+    private IAsyncPasswordEncoder passwordEncoder;
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionTemplate transactionTemplate;
+    private Executor persistenceExecutor;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, AuthorityRepository authorityRepository,
+                       IAsyncPasswordEncoder passwordEncoder, ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager,
+                       @Qualifier("userPersistenceExecutor") Executor persistenceExecutor) {
         this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.persistenceExecutor = persistenceExecutor;
     }
 
     @Override
@@ -26,7 +45,43 @@ public class UserService implements IUserService {
             String encodedPassword = passwordEncoder.encode(plainPassword);
             user.setPassword(encodedPassword);
         }
-        return userRepository.save(user);
+        return persist(user);
+    }
+
+    /**
+     * Like {@link #save(User)}, but a new user's password is hashed on the password hashing pool
+     * and the calling thread is not held while it is computed. The user is then stored on the
+     * persistence executor, so hashing threads never wait for the database and the hashing
+     * pool's backpressure only reflects hashing work.
+     */
+    @Override
+    public CompletableFuture<User> saveAsync(User user) {
+        if (user.getId() != null) {
+            return CompletableFuture.completedFuture(persist(user));
+        }
+        return passwordEncoder.encodeAsync(user.getPassword()).thenApplyAsync(encodedPassword -> {
+            user.setPassword(encodedPassword);
+            return transactionTemplate.execute(status -> persist(withManagedAuthorities(user)));
+        }, persistenceExecutor);
+    }
+
+    // the user's authorities were loaded by the request thread, so they are detached on the
+    // persistence thread; stored ones are replaced with references managed by this transaction
+    private User withManagedAuthorities(User user) {
+        if (user.getAuthorities() != null) {
+            Set<Authority> authorities = new HashSet<>();
+            for (Authority authority : user.getAuthorities()) {
+                authorities.add(authority.getId() == null ? authority : authorityRepository.getOne(authority.getId()));
+            }
+            user.setAuthorities(authorities);
+        }
+        return user;
+    }
+
+    private User persist(User user) {
+        User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserUpdatedEvent(savedUser.getUsername()));
+        return savedUser;
     }
 
     @Override
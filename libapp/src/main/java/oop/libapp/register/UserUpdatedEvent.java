@@ -0,0 +1,18 @@
+package oop.libapp.register;
+
+/**
+ * Published after a user has been saved, so that anything cached per user (token keys,
+ * user details) can be dropped and reloaded with the new state.
+ */
+public class UserUpdatedEvent {
+
+    private final String username;
+
+    public UserUpdatedEvent(String username) {
+        this.username = username;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
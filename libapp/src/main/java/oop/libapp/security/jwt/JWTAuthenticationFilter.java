@@ -1,5 +1,6 @@
 package oop.libapp.security.jwt;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -8,39 +9,100 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+/**
+ * Authenticates API requests carrying a bearer token. Requests without a bearer token pass on
+ * unauthenticated, and tokens that are structurally not a JWT are rejected with 401 before any
+ * decoding or signature check. Neither path throws, which keeps scanner and bot traffic cheap.
+ * Every rejection is counted by reason in {@link JWTRejectionCounters}.
+ */
 public class JWTAuthenticationFilter extends AbstractAuthenticationProcessingFilter {
 
+    static final int MAX_TOKEN_LENGTH = 4096;
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
     private final String AUTH_HEADER_NAME = "Authorization";
+    private final JWTRejectionCounters rejectionCounters;
     private boolean continueChainBeforeSuccessfulAuthentication = false;
 
-    public JWTAuthenticationFilter() {
+    public JWTAuthenticationFilter(JWTRejectionCounters rejectionCounters) {
         super(new AntPathRequestMatcher("/"));
+        this.rejectionCounters = rejectionCounters;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+
+        if (isAuthenticated() || !super.requiresAuthentication(request, response)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        JWTRejectionReason rejection = checkHeader(request.getHeader(AUTH_HEADER_NAME));
+        if (rejection == null) {
+            super.doFilter(request, response, chain);
+            return;
+        }
+
+        rejectionCounters.record(rejection);
+        if (rejection == JWTRejectionReason.OVERSIZED || rejection == JWTRejectionReason.MALFORMED) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
     }
 
     @Override
     protected boolean requiresAuthentication(HttpServletRequest request, HttpServletResponse response) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        Boolean requires = false;
-
-        if (auth == null || !auth.isAuthenticated()) {
-            String header = request.getHeader(AUTH_HEADER_NAME);
-            try {
-                Boolean requestMatches = super.requiresAuthentication(request, response);
-                Boolean headerCorrect = header.startsWith("Bearer");
-                if (headerCorrect && requestMatches) {
-                    requires = true;
+        // doFilter only hands well formed bearer tokens to the parent filter
+        return true;
+    }
+
+    /**
+     * Returns why the header cannot carry a valid token, or null if it holds a bearer token of
+     * three non empty base64url segments within the size cap.
+     */
+    static JWTRejectionReason checkHeader(String header) {
+        if (header == null) {
+            return JWTRejectionReason.MISSING_HEADER;
+        }
+        if (!header.startsWith(BEARER_PREFIX)) {
+            return JWTRejectionReason.NOT_BEARER;
+        }
+        if (header.length() - BEARER_PREFIX.length() > MAX_TOKEN_LENGTH) {
+            return JWTRejectionReason.OVERSIZED;
+        }
+
+        int separators = 0;
+        int segmentLength = 0;
+        for (int i = BEARER_PREFIX.length(); i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++separators > 2) {
+                    return JWTRejectionReason.MALFORMED;
                 }
-            } catch (NullPointerException ex) {
-                requires = false;
+                segmentLength = 0;
+            } else if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                segmentLength++;
+            } else {
+                return JWTRejectionReason.MALFORMED;
             }
-        } else {
-            requires = false;
         }
-        return requires;
+        return separators == 2 && segmentLength > 0 ? null : JWTRejectionReason.MALFORMED;
+    }
+
+    private static boolean isAuthenticated() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated();
     }
 
     @Override
@@ -57,6 +119,13 @@ public class JWTAuthenticationFilter extends AbstractAuthenticationProcessingFil
         }
     }
 
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest request, HttpServletResponse response, AuthenticationException failed)
+            throws IOException, ServletException {
+        rejectionCounters.record(JWTRejectionReason.INVALID);
+        super.unsuccessfulAuthentication(request, response, failed);
+    }
+
     @Override
     public Authentication attemptAuthentication(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse)
             throws AuthenticationException, IOException, ServletException {
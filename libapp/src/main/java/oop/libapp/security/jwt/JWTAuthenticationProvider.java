@@ -1,20 +1,29 @@
 package oop.libapp.security.jwt;
 
+import oop.libapp.token.ITokenRevocationService;
 import oop.libapp.token.ITokenService;
+import oop.libapp.token.InvalidTokenException;
+import oop.libapp.token.VerifiedToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import java.util.List;
+
 public class JWTAuthenticationProvider implements AuthenticationProvider {
 
     @Autowired
     private ITokenService tokenService;
 
+    @Autowired
+    private ITokenRevocationService tokenRevocationService;
+
     @Autowired
     private UserDetailsService userDetailsService;
 
@@ -22,16 +31,29 @@ public class JWTAuthenticationProvider implements AuthenticationProvider {
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         JWTToken jwtToken = (JWTToken)authentication;
         String token = jwtToken.getToken();
-        String username = tokenService.extractUsernameFromToken(token);
+        VerifiedToken verifiedToken;
 
-        if (username == null) {
-            throw new BadCredentialsException("Not a valid user!");
+        try {
+            verifiedToken = tokenService.verifyToken(token);
+        } catch (InvalidTokenException ex) {
+            throw new BadCredentialsException(ex.getMessage());
         }
-        if (!tokenService.isValidToken(token)) {
-            throw new BadCredentialsException("Token expired or invalid");
+
+        if (tokenRevocationService.isRevoked(verifiedToken)) {
+            throw new BadCredentialsException("Token has been revoked");
+        }
+
+        // tokens carrying signed authorities are authorized from their claims alone
+        List<String> tokenAuthorities = verifiedToken.getAuthorities();
+        if (tokenAuthorities != null) {
+            return new UsernamePasswordAuthenticationToken(
+                    verifiedToken.getUsername(),
+                    token,
+                    AuthorityUtils.createAuthorityList(tokenAuthorities.toArray(new String[0]))
+            );
         }
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(verifiedToken.getUsername());
         Authentication auth = new UsernamePasswordAuthenticationToken(
                 userDetails.getUsername(),
                 token,
@@ -0,0 +1,65 @@
+package oop.libapp.security.jwt;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests to the token protected API that were not authenticated, by reason, and
+ * exposes the counts over JMX.
+ */
+@ManagedResource(objectName = "oop.libapp:type=JWTRejectionCounters", description = "Rejected API authentication attempts")
+public class JWTRejectionCounters {
+
+    private final Map<JWTRejectionReason, LongAdder> counters = new EnumMap<>(JWTRejectionReason.class);
+
+    public JWTRejectionCounters() {
+        for (JWTRejectionReason reason : JWTRejectionReason.values()) {
+            counters.put(reason, new LongAdder());
+        }
+    }
+
+    public void record(JWTRejectionReason reason) {
+        counters.get(reason).increment();
+    }
+
+    public long get(JWTRejectionReason reason) {
+        return counters.get(reason).sum();
+    }
+
+    @ManagedAttribute(description = "Requests without an Authorization header")
+    public long getMissingHeader() {
+        return get(JWTRejectionReason.MISSING_HEADER);
+    }
+
+    @ManagedAttribute(description = "Requests with an Authorization header that is not a bearer token")
+    public long getNotBearer() {
+        return get(JWTRejectionReason.NOT_BEARER);
+    }
+
+    @ManagedAttribute(description = "Bearer tokens longer than the size cap")
+    public long getOversized() {
+        return get(JWTRejectionReason.OVERSIZED);
+    }
+
+    @ManagedAttribute(description = "Bearer tokens that are not three base64url segments")
+    public long getMalformed() {
+        return get(JWTRejectionReason.MALFORMED);
+    }
+
+    @ManagedAttribute(description = "Well formed tokens that failed verification or were revoked")
+    public long getInvalid() {
+        return get(JWTRejectionReason.INVALID);
+    }
+
+    @ManagedOperation(description = "Resets all counters to zero")
+    public void reset() {
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+    }
+}
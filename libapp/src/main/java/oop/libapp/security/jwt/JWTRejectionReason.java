@@ -0,0 +1,9 @@
+package oop.libapp.security.jwt;
+
+public enum JWTRejectionReason {
+    MISSING_HEADER,
+    NOT_BEARER,
+    OVERSIZED,
+    MALFORMED,
+    INVALID
+}
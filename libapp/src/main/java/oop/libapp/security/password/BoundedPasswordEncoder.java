@@ -0,0 +1,148 @@
+package oop.libapp.security.password;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs a CPU heavy password encoder on a dedicated pool of a fixed size with a bounded queue,
+ * so that hashing can occupy at most that many cores however many requests need it. Work that
+ * does not fit into the queue is rejected right away with {@link PasswordHashingRejectedException}
+ * instead of piling up behind the pool.
+ *
+ * The {@link PasswordEncoder} methods wait for their result; {@link #encodeAsync(CharSequence)}
+ * lets a caller release its thread while the hash is computed.
+ */
+public class BoundedPasswordEncoder implements IAsyncPasswordEncoder {
+
+    static final int BULK_CHUNK_SIZE = 32;
+
+    private final PasswordEncoder delegate;
+    private final int threads;
+    private final ThreadPoolExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.threads = threads;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Encodes many passwords in parallel on the pool and returns the hashes in input order. The work
+     * is split into small chunks and at most one chunk per pool thread is queued at a time, so single
+     * password operations submitted meanwhile are not stuck behind the whole batch.
+     */
+    @Override
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<CompletableFuture<List<String>>> chunks = new ArrayList<>();
+        Deque<CompletableFuture<List<String>>> inFlight = new ArrayDeque<>();
+
+        for (int from = 0; from < rawPasswords.size(); from += BULK_CHUNK_SIZE) {
+            if (inFlight.size() == threads) {
+                await(inFlight.poll());
+            }
+            List<? extends CharSequence> slice = rawPasswords.subList(from, Math.min(from + BULK_CHUNK_SIZE, rawPasswords.size()));
+            CompletableFuture<List<String>> chunk = submit(() -> {
+                List<String> encoded = new ArrayList<>(slice.size());
+                for (CharSequence rawPassword : slice) {
+                    encoded.add(delegate.encode(rawPassword));
+                }
+                return encoded;
+            });
+            chunks.add(chunk);
+            inFlight.add(chunk);
+        }
+
+        List<String> encodedPasswords = new ArrayList<>(rawPasswords.size());
+        for (CompletableFuture<List<String>> chunk : chunks) {
+            encodedPasswords.addAll(await(chunk));
+        }
+        return encodedPasswords;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        if (isHashingThread()) {
+            return delegate.encode(rawPassword);
+        }
+        return await(encodeAsync(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (isHashingThread()) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException ex) {
+            throw new PasswordHashingRejectedException("Too many password operations in progress, try again later");
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // work submitted from a pool thread runs inline, so that it can never wait on a full queue it is part of
+    private static boolean isHashingThread() {
+        return Thread.currentThread() instanceof HashingThread;
+    }
+
+    private static class HashingThread extends Thread {
+
+        private HashingThread(Runnable runnable, String name) {
+            super(runnable, name);
+            setDaemon(true);
+        }
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new HashingThread(runnable, "password-hashing-" + count.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package oop.libapp.security.password;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link PasswordEncoder} that can also hash without holding the calling thread, and hash
+ * many passwords at once.
+ */
+public interface IAsyncPasswordEncoder extends PasswordEncoder {
+    CompletableFuture<String> encodeAsync(CharSequence rawPassword);
+    CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword);
+    List<String> encodeAll(List<? extends CharSequence> rawPasswords);
+}
@@ -0,0 +1,14 @@
+package oop.libapp.security.password;
+
+/**
+ * Thrown when the password hashing pool is saturated and cannot take more work. It is unchecked,
+ * because it has to pass through {@link org.springframework.security.crypto.password.PasswordEncoder}.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public static final int RETRY_AFTER_SECONDS = 1;
+
+    public PasswordHashingRejectedException(String msg) {
+        super(msg);
+    }
+}
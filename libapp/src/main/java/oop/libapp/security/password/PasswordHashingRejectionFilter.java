@@ -0,0 +1,47 @@
+package oop.libapp.security.password;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import oop.libapp.message.ErrorMessage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Turns a {@link PasswordHashingRejectedException} raised while authenticating a request, before
+ * it reaches any controller, into a 503 response telling the client when to retry. The response
+ * is written here rather than through an error dispatch, which would be authenticated again.
+ */
+public class PasswordHashingRejectionFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+
+    public PasswordHashingRejectionFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } catch (PasswordHashingRejectedException ex) {
+            ErrorMessage errorMessage = new ErrorMessage();
+            errorMessage.addSingleMessage(ex.getMessage());
+            errorMessage.setTimestamp(new Date());
+            errorMessage.setPath("uri=" + request.getRequestURI());
+
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(PasswordHashingRejectedException.RETRY_AFTER_SECONDS));
+            response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), errorMessage);
+        }
+    }
+}
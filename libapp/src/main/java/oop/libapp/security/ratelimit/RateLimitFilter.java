@@ -0,0 +1,59 @@
+package oop.libapp.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import oop.libapp.message.ErrorMessage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link RateLimiter} rules to a request and answers 429 with a Retry-After header
+ * when the client's bucket is empty. Requests are limited per client IP, so the filter placed in
+ * front of an authentication filter protects the authentication itself. Authenticated requests
+ * are limited per user by {@link UserRateLimitFilter}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimitRule rule = rateLimiter.findRule(request);
+        long waitNanos = rule == null ? 0 : rule.tryAcquire(clientKey(request));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ErrorMessage errorMessage = new ErrorMessage();
+        errorMessage.addSingleMessage("Too many requests, try again later");
+        errorMessage.setTimestamp(new Date());
+        errorMessage.setPath("uri=" + request.getRequestURI());
+
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorMessage);
+    }
+
+    protected String clientKey(HttpServletRequest request) {
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,78 @@
+package oop.libapp.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket limit for the requests matching a path pattern and optionally an HTTP method.
+ * Every client key gets its own bucket holding {@code capacity} tokens, refilled at
+ * {@code refillPerSecond}.
+ *
+ * A bucket is kept as a single {@link AtomicLong}, the time at which it would be full again
+ * (the generic cell rate algorithm, which behaves exactly like a token bucket). Taking a token
+ * is one compare-and-set, so no request ever waits for a lock. Idle buckets are full by
+ * definition, so they are simply evicted from the cache.
+ */
+public class RateLimitRule {
+
+    static final long MAX_BUCKETS = 100_000;
+
+    private final String method;
+    private final AntPathRequestMatcher matcher;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    RateLimitRule(String method, String pattern, int capacity, double refillPerSecond, LongSupplier nanoClock) {
+        this.method = method;
+        this.matcher = method == null ? new AntPathRequestMatcher(pattern) : new AntPathRequestMatcher(pattern, method);
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_BUCKETS)
+                .expireAfterAccess(Math.max(burstNanos, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS)
+                .ticker(nanoClock::getAsLong)
+                .build();
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        return matcher.matches(request);
+    }
+
+    /**
+     * Takes a token from the key's bucket. Returns 0 if one was available, otherwise the number
+     * of nanoseconds until the next token becomes available.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(nanoClock.getAsLong()));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long fullAt = bucket.get();
+            long start = fullAt - now < 0 ? now : fullAt;
+            long next = start + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPattern() {
+        return matcher.getPattern();
+    }
+}
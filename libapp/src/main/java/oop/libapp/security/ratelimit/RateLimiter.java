@@ -0,0 +1,48 @@
+package oop.libapp.security.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Ordered list of {@link RateLimitRule}s. A request is limited by the first rule it matches,
+ * requests matching no rule are not limited.
+ */
+public class RateLimiter {
+
+    private final List<RateLimitRule> rules = new CopyOnWriteArrayList<>();
+    private final LongSupplier nanoClock;
+
+    public RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    RateLimiter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Limits the requests to paths matching the ant pattern, and with the given method unless it
+     * is null, to bursts of {@code capacity} requests refilled at {@code refillPerSecond}.
+     */
+    public RateLimiter addRule(HttpMethod method, String pattern, int capacity, double refillPerSecond) {
+        rules.add(new RateLimitRule(method == null ? null : method.name(), pattern, capacity, refillPerSecond, nanoClock));
+        return this;
+    }
+
+    public RateLimitRule findRule(HttpServletRequest request) {
+        for (RateLimitRule rule : rules) {
+            if (rule.matches(request)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    public List<RateLimitRule> getRules() {
+        return rules;
+    }
+}
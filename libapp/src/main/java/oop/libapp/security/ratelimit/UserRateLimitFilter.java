@@ -0,0 +1,31 @@
+package oop.libapp.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * {@link RateLimitFilter} placed behind an authentication filter. Authenticated requests are
+ * limited per username, however many users share an address, all others per client IP. It is a
+ * class of its own because the security configuration orders its filters by class, and a
+ * {@link org.springframework.web.filter.OncePerRequestFilter} skips a request another instance
+ * of its class has already seen.
+ */
+public class UserRateLimitFilter extends RateLimitFilter {
+
+    public UserRateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        super(rateLimiter, objectMapper);
+    }
+
+    @Override
+    protected String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        return super.clientKey(request);
+    }
+}
@@ -1,27 +1,62 @@
 package oop.libapp.security.secret;
 
 import java.security.SecureRandom;
-import java.util.Random;
 
 
+/**
+ * Generates random alphanumeric secrets. Every thread draws from its own pool of prefetched
+ * {@link SecureRandom} bytes, so concurrent callers never share mutable state and the random
+ * source is only hit once per {@link #POOL_SIZE} bytes instead of once per character. A byte is
+ * mapped to a symbol only if it falls below the largest multiple of the alphabet size, which
+ * keeps every symbol equally likely.
+ */
 public class SecretGenerator implements ISecretGenerator {
     public static final String alphaUpper = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
     public static final String alphaLower = alphaUpper.toLowerCase();
     public static final String numeric = "0123456789";
     public static final String alphaNumeric = alphaUpper + alphaLower + numeric;
-    private final Random random;
-    private final char[] allSymbols = alphaNumeric.toCharArray();
-    private final char[] buf;
+
+    static final int POOL_SIZE = 512;
+
+    private static final char[] allSymbols = alphaNumeric.toCharArray();
+    private static final int acceptedBytes = 256 - 256 % allSymbols.length;
+
+    private final int secretLength;
+    private final ThreadLocal<EntropyPool> pools;
 
     public SecretGenerator(int secretLength) {
-        random = new SecureRandom();
-        this.buf = new char[secretLength];
+        this.secretLength = secretLength;
+        this.pools = ThreadLocal.withInitial(() -> new EntropyPool(secretLength));
     }
 
     public String generateSecret() {
-        for (int i = 0; i < buf.length; ++i) {
-            buf[i] = allSymbols[random.nextInt(allSymbols.length)];
+        EntropyPool pool = pools.get();
+        char[] buf = pool.buf;
+        for (int i = 0; i < secretLength; ) {
+            int b = pool.nextByte();
+            if (b < acceptedBytes) {
+                buf[i++] = allSymbols[b % allSymbols.length];
+            }
         }
         return new String(buf);
     }
-}
\ No newline at end of file
+
+    private static final class EntropyPool {
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] bytes = new byte[POOL_SIZE];
+        private final char[] buf;
+        private int position = POOL_SIZE;
+
+        private EntropyPool(int secretLength) {
+            this.buf = new char[secretLength];
+        }
+
+        private int nextByte() {
+            if (position == POOL_SIZE) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+            return bytes[position++] & 0xff;
+        }
+    }
+}
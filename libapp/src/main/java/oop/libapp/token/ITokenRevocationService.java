@@ -0,0 +1,6 @@
+package oop.libapp.token;
+
+public interface ITokenRevocationService {
+    void revoke(VerifiedToken token);
+    boolean isRevoked(VerifiedToken token);
+}
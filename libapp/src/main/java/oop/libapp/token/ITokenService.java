@@ -1,7 +1,11 @@
 package oop.libapp.token;
 
+import java.util.Collection;
+
 public interface ITokenService {
     String generateTokenForUser(String username) throws FailedTokenGenerationException;
+    String generateTokenForUser(String username, Collection<String> authorities) throws FailedTokenGenerationException;
     String extractUsernameFromToken(String token);
     Boolean isValidToken(String token);
+    VerifiedToken verifyToken(String token) throws InvalidTokenException;
 }
@@ -0,0 +1,8 @@
+package oop.libapp.token;
+
+public class InvalidTokenException extends Exception {
+
+    public InvalidTokenException(String msg) {
+        super(msg);
+    }
+}
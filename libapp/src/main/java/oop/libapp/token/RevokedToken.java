@@ -0,0 +1,53 @@
+package oop.libapp.token;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.util.Date;
+
+@Entity
+@Table(indexes = @Index(name = "idx_revoked_token_expires_at", columnList = "expiresAt"))
+public class RevokedToken {
+
+    @Id
+    @Column(length = 64)
+    private String tokenId;
+
+    private String username;
+
+    @Column(nullable = false)
+    private Date expiresAt;
+
+    public RevokedToken() {}
+    public RevokedToken(String tokenId, String username, Date expiresAt) {
+        this.tokenId = tokenId;
+        this.username = username;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -3,8 +3,12 @@ package oop.libapp.token;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.security.Principal;
@@ -15,21 +19,55 @@ import java.util.Map;
 public class TokenController {
 
     private ITokenService tokenService;
+    private ITokenRevocationService tokenRevocationService;
 
     @Autowired
-    public TokenController(ITokenService tokenService) {
+    public TokenController(ITokenService tokenService, ITokenRevocationService tokenRevocationService) {
         this.tokenService = tokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
 
     @RequestMapping(value = "users/get-token", method = RequestMethod.POST)
-    public ResponseEntity<Map> getToken(Principal principal) throws FailedTokenGenerationException {
+    public ResponseEntity<Map> getToken(Principal principal,
+                                        @RequestParam(value = "embedAuthorities", required = false, defaultValue = "false")
+                                                boolean embedAuthorities) throws FailedTokenGenerationException {
         String username = principal.getName();
-        String generatedToken = tokenService.generateTokenForUser(username);
+        String generatedToken;
+
+        if (embedAuthorities && principal instanceof Authentication) {
+            Authentication authentication = (Authentication) principal;
+            generatedToken = tokenService.generateTokenForUser(username,
+                    AuthorityUtils.authorityListToSet(authentication.getAuthorities()));
+        } else {
+            generatedToken = tokenService.generateTokenForUser(username);
+        }
 
         Map<String, String> response = new HashMap<>();
         response.put("isValid", "true");
         response.put("token", generatedToken);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+
+    /**
+     * Revokes a single token of the authenticated user; the user's other tokens stay valid.
+     */
+    @RequestMapping(value = "users/revoke-token", method = RequestMethod.POST)
+    public ResponseEntity<Map> revokeToken(Principal principal, @RequestBody Map<String, String> body)
+            throws InvalidTokenException {
+        String token = body.get("token");
+        if (token == null) {
+            throw new InvalidTokenException("No token given");
+        }
+
+        VerifiedToken verifiedToken = tokenService.verifyToken(token);
+        if (!verifiedToken.getUsername().equals(principal.getName())) {
+            throw new InvalidTokenException("Token was not issued to this user");
+        }
+        tokenRevocationService.revoke(verifiedToken);
+
+        Map<String, String> response = new HashMap<>();
+        response.put("isRevoked", "true");
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
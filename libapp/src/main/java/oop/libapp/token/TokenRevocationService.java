@@ -0,0 +1,110 @@
+package oop.libapp.token;
+
+import oop.libapp.util.BloomFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keeps track of revoked tokens. Revocations are stored in the database and mirrored in a Bloom
+ * filter, so checking a token that was never revoked, which is almost every token, costs a few
+ * hash probes and no query. Only when the filter reports a possible match is the database asked.
+ *
+ * The filter cannot forget single entries, so it is rebuilt periodically from the revocations
+ * whose tokens have not expired yet; the expired ones are deleted at the same time.
+ *
+ * A revocation enters the filter of the node that handled it right away, but the filters of
+ * other nodes only learn about it at their next rebuild. Until then those nodes keep
+ * accepting the revoked token, so revocation is eventually consistent across nodes, with a lag
+ * of at most {@code libapp.token.revocation-rebuild-interval-ms} (ten minutes by default).
+ * Deployments with several API nodes that need revocations to take effect sooner can shorten
+ * the interval, at the cost of one rebuild query per node per interval.
+ */
+@Service
+public class TokenRevocationService implements ITokenRevocationService {
+
+    static final String REBUILD_INTERVAL_MS = "${libapp.token.revocation-rebuild-interval-ms:600000}";
+    static final int MIN_EXPECTED_REVOCATIONS = 10_000;
+    static final double FALSE_POSITIVE_PROBABILITY = 0.001;
+
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private volatile BloomFilter filter = newFilter(0);
+
+    // token ids revoked while a rebuild is running, they may be missing from the rebuild query
+    private List<String> revokedDuringRebuild;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @Override
+    public void revoke(VerifiedToken token) {
+        if (token.getTokenId() == null || token.getExpiresAt() == null) {
+            // tokens issued without an id cannot be revoked one by one
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(token.getTokenId(), token.getUsername(), token.getExpiresAt()));
+
+        synchronized (this) {
+            filter.put(token.getTokenId());
+            if (revokedDuringRebuild != null) {
+                revokedDuringRebuild.add(token.getTokenId());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRevoked(VerifiedToken token) {
+        String tokenId = token.getTokenId();
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(tokenId);
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = REBUILD_INTERVAL_MS, fixedDelayString = REBUILD_INTERVAL_MS)
+    public void rebuild() {
+        synchronized (this) {
+            revokedDuringRebuild = new ArrayList<>();
+        }
+
+        BloomFilter rebuilt;
+        try {
+            Date now = new Date();
+            revokedTokenRepository.deleteExpired(now);
+            List<String> tokenIds = revokedTokenRepository.findTokenIdsExpiringAfter(now);
+
+            rebuilt = newFilter(tokenIds.size());
+            for (String tokenId : tokenIds) {
+                rebuilt.put(tokenId);
+            }
+        } catch (RuntimeException ex) {
+            // the current filter stays in use, it still contains every revocation
+            synchronized (this) {
+                revokedDuringRebuild = null;
+            }
+            throw ex;
+        }
+
+        synchronized (this) {
+            for (String tokenId : revokedDuringRebuild) {
+                rebuilt.put(tokenId);
+            }
+            revokedDuringRebuild = null;
+            filter = rebuilt;
+        }
+    }
+
+    // leaves room for the revocations that arrive until the next rebuild
+    private static BloomFilter newFilter(int revocations) {
+        return new BloomFilter(Math.max(MIN_EXPECTED_REVOCATIONS, revocations * 2), FALSE_POSITIVE_PROBABILITY);
+    }
+}
@@ -1,38 +1,87 @@
 package oop.libapp.token;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.register.IUserService;
+import oop.libapp.register.UserUpdatedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Collection;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TokenService implements ITokenService {
 
+    static final long USER_KEY_CACHE_SIZE = 10_000;
+    static final long USER_KEY_CACHE_TTL_MINUTES = 10;
+
     private IUserService userService;
 
+    // username -> signing algorithm and verifier built from the user's secret, so that verifying
+    // a token does not need a database round trip to fetch the secret
+    private final Cache<String, UserKey> userKeys = Caffeine.newBuilder()
+            .maximumSize(USER_KEY_CACHE_SIZE)
+            .expireAfterWrite(USER_KEY_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
+
     @Autowired
     public TokenService(IUserService userService) {
         this.userService = userService;
     }
 
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        userKeys.invalidate(event.getUsername());
+    }
+
+    // the key is loaded inside the cache's atomic compute, so an invalidation caused by a secret
+    // rotation waits for a load in flight and removes it, instead of being overwritten by it
+    private UserKey getUserKey(String username) throws ResourceNotFoundException {
+        try {
+            return userKeys.get(username, this::loadUserKey);
+        } catch (UnknownUserException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private UserKey loadUserKey(String username) {
+        try {
+            return new UserKey(username, userService.findSecretByUsername(username));
+        } catch (ResourceNotFoundException ex) {
+            throw new UnknownUserException(ex);
+        }
+    }
+
     @Override
     public String generateTokenForUser(String username) throws FailedTokenGenerationException {
-        String secret;
-        Algorithm algorithm;
-        String generatedToken;
+        return generateTokenForUser(username, null);
+    }
+
+    /**
+     * Generates a token for the user. When authorities are given they are signed into the token,
+     * so that requests made with it can be authorized from the token alone.
+     */
+    @Override
+    public String generateTokenForUser(String username, Collection<String> authorities) throws FailedTokenGenerationException {
+        UserKey userKey;
+        JWTCreator.Builder builder;
 
         try {
-            secret = userService.findSecretByUsername(username);
+            userKey = getUserKey(username);
         } catch (ResourceNotFoundException ex) {
             // we do not have the secret of a specific user, we cannot proceed
             throw new FailedTokenGenerationException("Token could not be generated, because the secret was null");
@@ -41,15 +90,18 @@ public class TokenService implements ITokenService {
         LocalDateTime threeDaysFromNow = LocalDateTime.now().plusDays(1);
         Date expiresAt = Date.from(threeDaysFromNow.atZone(ZoneId.systemDefault()).toInstant());
 
-        algorithm = Algorithm.HMAC512(secret);
-        generatedToken = JWT
+        builder = JWT
                 .create()
+                .withJWTId(UUID.randomUUID().toString())
                 .withClaim("username", username)
                 .withIssuer("library-app")
-                .withExpiresAt(expiresAt)
-                .sign(algorithm);
+                .withExpiresAt(expiresAt);
 
-        return generatedToken;
+        if (authorities != null) {
+            builder.withArrayClaim(VerifiedToken.AUTHORITIES_CLAIM, authorities.toArray(new String[0]));
+        }
+
+        return builder.sign(userKey.algorithm);
     }
 
     private String removePrefixIfExists(String token) {
@@ -77,31 +129,74 @@ public class TokenService implements ITokenService {
 
     @Override
     public Boolean isValidToken(String token) {
-        String tokenWithoutPrefix;
+        try {
+            verifyToken(token);
+        } catch (InvalidTokenException ex) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the token once and verifies that decoded token with the user's cached verifier,
+     * instead of decoding it again for every check.
+     */
+    @Override
+    public VerifiedToken verifyToken(String token) throws InvalidTokenException {
+        DecodedJWT jwt;
         String username;
-        String userSecret;
+        UserKey userKey;
 
-        tokenWithoutPrefix = removePrefixIfExists(token);
-        username = extractUsernameFromToken(token);
+        try {
+            jwt = JWT.decode(removePrefixIfExists(token));
+        } catch (JWTDecodeException ex) {
+            throw new InvalidTokenException("Not a valid user!");
+        }
+
+        username = jwt.getClaim("username").asString();
+        if (username == null) {
+            throw new InvalidTokenException("Not a valid user!");
+        }
 
         try {
-            userSecret = userService.findSecretByUsername(username);
+            userKey = getUserKey(username);
         } catch (ResourceNotFoundException ex) {
             // token cannot be valid if the secret is null
-            return false;
+            throw new InvalidTokenException("Token expired or invalid");
         }
 
         try {
-            Algorithm algorithm = Algorithm.HMAC512(userSecret);
-            JWTVerifier verifier = JWT.require(algorithm)
+            userKey.verifier.verify(jwt);
+        } catch (JWTVerificationException ex) {
+            throw new InvalidTokenException("Token expired or invalid");
+        }
+        return new VerifiedToken(username, jwt.getClaims());
+    }
+
+    private static class UserKey {
+
+        private final Algorithm algorithm;
+        private final JWTVerifier verifier;
+
+        private UserKey(String username, String secret) {
+            this.algorithm = Algorithm.HMAC512(secret);
+            this.verifier = JWT.require(algorithm)
                     .withClaim("username", username)
                     .withIssuer("library-app")
                     .build();
-            DecodedJWT jwt = verifier.verify(tokenWithoutPrefix);
-        } catch (JWTVerificationException exception){
-            return false;
         }
+    }
 
-        return true;
+    // carries the checked exception of a failed load out of the cache
+    private static class UnknownUserException extends RuntimeException {
+
+        UnknownUserException(ResourceNotFoundException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized ResourceNotFoundException getCause() {
+            return (ResourceNotFoundException) super.getCause();
+        }
     }
 }
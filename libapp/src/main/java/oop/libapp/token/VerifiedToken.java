@@ -0,0 +1,59 @@
+package oop.libapp.token;
+
+import com.auth0.jwt.interfaces.Claim;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a successful token verification: the user the token was issued to and its claims.
+ */
+public class VerifiedToken {
+
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    public static final String TOKEN_ID_CLAIM = "jti";
+    public static final String EXPIRES_AT_CLAIM = "exp";
+
+    private final String username;
+    private final Map<String, Claim> claims;
+
+    public VerifiedToken(String username, Map<String, Claim> claims) {
+        this.username = username;
+        this.claims = Collections.unmodifiableMap(claims);
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Map<String, Claim> getClaims() {
+        return claims;
+    }
+
+    public Claim getClaim(String name) {
+        return claims.get(name);
+    }
+
+    /**
+     * Returns the authorities signed into the token, or null if the token was issued without them.
+     */
+    public List<String> getAuthorities() {
+        Claim claim = claims.get(AUTHORITIES_CLAIM);
+        return claim == null || claim.isNull() ? null : claim.asList(String.class);
+    }
+
+    /**
+     * Returns the unique id of the token, or null for tokens issued before ids were added.
+     */
+    public String getTokenId() {
+        Claim claim = claims.get(TOKEN_ID_CLAIM);
+        return claim == null || claim.isNull() ? null : claim.asString();
+    }
+
+    public Date getExpiresAt() {
+        Claim claim = claims.get(EXPIRES_AT_CLAIM);
+        return claim == null || claim.isNull() ? null : claim.asDate();
+    }
+}
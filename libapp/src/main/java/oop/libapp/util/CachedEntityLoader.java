@@ -0,0 +1,71 @@
+package oop.libapp.util;
+
+import oop.libapp.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.EntityType;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Loads several entities of a second-level cached type by id. Entities held by the cache are
+ * read from it like {@link EntityManager#find} would, and only the others are loaded, with a
+ * single query that puts them into the cache in turn.
+ */
+@Component
+public class CachedEntityLoader {
+
+    private EntityManager entityManager;
+
+    @Autowired
+    public CachedEntityLoader(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Returns the entities in the order of the ids, repeated ids included. If any id does not
+     * exist, all of the missing ids are reported together.
+     */
+    public <T> List<T> findAllById(Class<T> type, Collection<Long> ids, Function<T, Long> idOf) throws ResourceNotFoundException {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        Map<Long, T> found = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        for (Long id : uniqueIds) {
+            // an entity evicted since the check is loaded with the others
+            T entity = cache.contains(type, id) ? entityManager.find(type, id) : null;
+            if (entity != null) {
+                found.put(id, entity);
+            } else {
+                uncachedIds.add(id);
+            }
+        }
+        if (!uncachedIds.isEmpty()) {
+            EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+            String query = "select e from " + entityType.getName() + " e where e."
+                    + entityType.getId(Long.class).getName() + " in :ids";
+            for (T entity : entityManager.createQuery(query, type).setParameter("ids", uncachedIds).getResultList()) {
+                found.put(idOf.apply(entity), entity);
+            }
+        }
+
+        if (found.size() < uniqueIds.size()) {
+            List<Long> missingIds = new ArrayList<>();
+            for (Long id : uniqueIds) {
+                if (!found.containsKey(id)) {
+                    missingIds.add(id);
+                }
+            }
+            throw new ResourceNotFoundException(type.getSimpleName() + "s with these ids not found: " + missingIds);
+        }
+
+        List<T> entities = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            entities.add(found.get(id));
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,96 @@
+package oop.libapp.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming reader for RFC 4180 style CSV: comma separated fields, optionally enclosed in
+ * double quotes, with "" standing for a quote inside a quoted field. Quoted fields may span lines.
+ * Records are read one at a time, so arbitrarily large inputs can be processed.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+    private int pending = -2;
+    private long recordNumber;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the fields of the next record, or null when the input is exhausted. Blank lines are skipped.
+     */
+    public List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+                any = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                any = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                if (any || field.length() > 0) {
+                    break;
+                }
+            } else {
+                field.append((char) c);
+                any = true;
+            }
+        }
+
+        if (!any && field.length() == 0) {
+            return null;
+        }
+        fields.add(field.toString());
+        recordNumber++;
+        return fields;
+    }
+
+    /**
+     * Number of the record last returned by {@link #readRecord()}, starting at 1.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -1,10 +1,8 @@
 package oop.libapp.util;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 
 @Data
-@AllArgsConstructor
 public class GenericResponse {
 	
 	private String message;
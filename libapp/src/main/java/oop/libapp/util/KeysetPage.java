@@ -0,0 +1,59 @@
+package oop.libapp.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset paginated listing. The items are sent as the response body, as before,
+ * and the opaque token for the next page travels in the {@value #CONTINUATION_HEADER} header,
+ * which is missing on the last page.
+ */
+public class KeysetPage<T> {
+
+    public static final String CONTINUATION_HEADER = "X-Continuation-Token";
+
+    private final List<T> items;
+    private final String continuationToken;
+
+    public KeysetPage(List<T> items, String continuationToken) {
+        this.items = items;
+        this.continuationToken = continuationToken;
+    }
+
+    /**
+     * Builds a page from rows read with {@link KeysetRequest#toPageable()}, ordered by id.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, KeysetRequest request, Function<T, Long> idOf) {
+        if (rows.size() <= request.getLimit()) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, request.getLimit()));
+        Long lastId = idOf.apply(items.get(items.size() - 1));
+        return new KeysetPage<>(items, KeysetRequest.encode(lastId));
+    }
+
+    public static <T> KeysetPage<T> lastPage(List<T> items) {
+        return new KeysetPage<>(items, null);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public ResponseEntity<List<T>> toResponseEntity() {
+        HttpHeaders headers = new HttpHeaders();
+        if (continuationToken != null) {
+            headers.set(CONTINUATION_HEADER, continuationToken);
+        }
+        return new ResponseEntity<>(items, headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,100 @@
+package oop.libapp.util;
+
+import oop.libapp.exception.InvalidContinuationTokenException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Position of a keyset (seek) page: only rows with an id greater than the last id of the
+ * previous page are read, so every page costs the same no matter how deep the client goes.
+ */
+public class KeysetRequest {
+
+    /**
+     * Page size of a listing requested without a limit. Listings used to return every row,
+     * so clients that send neither a limit nor a continuation token now get the first page
+     * only and have to follow the {@value KeysetPage#CONTINUATION_HEADER} header for the rest.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private static final String TOKEN_PREFIX = "v1:";
+
+    private final long afterId;
+    private final int limit;
+
+    public KeysetRequest(long afterId, int limit) {
+        this.afterId = afterId;
+        this.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static KeysetRequest first() {
+        return new KeysetRequest(0, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Builds a request from the optional continuation token and page size sent by the client.
+     */
+    public static KeysetRequest of(String continuationToken, Integer limit) throws InvalidContinuationTokenException {
+        long afterId = continuationToken == null ? 0 : decode(continuationToken);
+        return new KeysetRequest(afterId, limit == null ? DEFAULT_LIMIT : limit);
+    }
+
+    public long getAfterId() {
+        return afterId;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * One row more than the page size is requested, to tell whether another page exists.
+     */
+    public Pageable toPageable() {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /**
+     * Applies the request to ids that are already known and sorted ascending, e.g. ids coming from an in-memory index.
+     */
+    public List<Long> slice(List<Long> sortedIds) {
+        List<Long> result = new ArrayList<>();
+        for (Long id : sortedIds) {
+            if (id > afterId) {
+                result.add(id);
+                if (result.size() > limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    static String encode(long lastId) {
+        byte[] raw = (TOKEN_PREFIX + lastId).getBytes(StandardCharsets.US_ASCII);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static long decode(String token) throws InvalidContinuationTokenException {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII);
+            if (!raw.startsWith(TOKEN_PREFIX)) {
+                throw new InvalidContinuationTokenException("Continuation token is not valid");
+            }
+            long afterId = Long.parseLong(raw.substring(TOKEN_PREFIX.length()));
+            if (afterId < 0) {
+                throw new InvalidContinuationTokenException("Continuation token is not valid");
+            }
+            return afterId;
+        } catch (IllegalArgumentException ex) {
+            // also covers NumberFormatException
+            throw new InvalidContinuationTokenException("Continuation token is not valid");
+        }
+    }
+}
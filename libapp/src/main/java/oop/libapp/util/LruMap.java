@@ -0,0 +1,23 @@
+package oop.libapp.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Map holding at most a fixed number of entries, evicting the least recently accessed one when
+ * a new entry would exceed the limit. Not thread safe.
+ */
+public class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private final int maxSize;
+
+    public LruMap(int maxSize) {
+        super(16, 0.75f, true);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxSize;
+    }
+}
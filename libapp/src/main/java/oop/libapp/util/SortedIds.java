@@ -0,0 +1,63 @@
+package oop.libapp.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Helpers for id sets kept as ascending, duplicate free long arrays.
+ */
+public final class SortedIds {
+
+    private SortedIds() {}
+
+    public static long[] of(Collection<Long> ids) {
+        long[] result = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            result[i++] = id;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    public static List<Long> toList(long[] ids) {
+        List<Long> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * Intersects two sorted id arrays. Every id of the smaller array is searched in the larger one
+     * with a galloping search starting at the last match, so intersecting a handful of ids with
+     * a large set costs only a few probes per id.
+     */
+    public static long[] intersect(long[] a, long[] b) {
+        long[] small = a.length <= b.length ? a : b;
+        long[] large = a.length <= b.length ? b : a;
+        long[] result = new long[small.length];
+        int count = 0;
+        int from = 0;
+
+        for (long id : small) {
+            int bound = 1;
+            while (from + bound < large.length && large[from + bound] < id) {
+                bound <<= 1;
+            }
+            int pos = Arrays.binarySearch(large, from, Math.min(from + bound + 1, large.length), id);
+            if (pos >= 0) {
+                result[count++] = id;
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+            if (from >= large.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,168 @@
+package oop.libapp.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Substring index over short names, such as author or genre names.
+ *
+ * Every lower-cased name is split into all of its three character windows (trigrams) and each
+ * trigram keeps the ids of the names it occurs in. A substring query intersects the posting
+ * lists of its own trigrams, starting with the shortest one, and verifies the few remaining
+ * candidates against the stored name. Queries shorter than three characters have no trigram
+ * to look up and fall back to checking every stored name, which is still done in memory.
+ *
+ * A rebuild fills a fresh index and swaps it in once it is complete, so searches made while it
+ * runs still see every name. Names put or removed during a rebuild are replayed into the new
+ * index before the swap, since the rows it was read from may not contain them.
+ */
+public class TrigramIndex {
+
+    /**
+     * Interval of the periodic rebuilds of the indexes kept by the services, which is how long
+     * names saved or deleted by another node take to be found here.
+     */
+    protected static final String REBUILD_INTERVAL_MS = "${libapp.search.index-rebuild-interval-ms:600000}";
+
+    private static final int GRAM = 3;
+
+    private volatile Postings postings = new Postings();
+    // updates made while a rebuild is running, guarded by this
+    private List<Consumer<Postings>> updatesDuringRebuild;
+    private final Object rebuildLock = new Object();
+
+    public void put(Long id, String name) {
+        update(postings -> postings.put(id, name));
+    }
+
+    public void remove(Long id) {
+        update(postings -> postings.remove(id));
+    }
+
+    private synchronized void update(Consumer<Postings> update) {
+        update.accept(postings);
+        if (updatesDuringRebuild != null) {
+            updatesDuringRebuild.add(update);
+        }
+    }
+
+    /**
+     * Replaces the indexed names with the given (id, name) rows.
+     */
+    protected void rebuild(Supplier<List<Object[]>> idsAndNames) {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                updatesDuringRebuild = new ArrayList<>();
+            }
+
+            Postings rebuilt = new Postings();
+            try {
+                for (Object[] row : idsAndNames.get()) {
+                    rebuilt.put((Long) row[0], (String) row[1]);
+                }
+            } catch (RuntimeException ex) {
+                // the current index stays in use, it already holds every update
+                synchronized (this) {
+                    updatesDuringRebuild = null;
+                }
+                throw ex;
+            }
+
+            synchronized (this) {
+                for (Consumer<Postings> update : updatesDuringRebuild) {
+                    update.accept(rebuilt);
+                }
+                updatesDuringRebuild = null;
+                postings = rebuilt;
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of all names containing the given text, ignoring case, in ascending order.
+     */
+    public List<Long> search(String text) {
+        Postings postings = this.postings;
+        String needle = fold(text);
+        List<Long> result = new ArrayList<>();
+
+        if (needle.length() < GRAM) {
+            for (Map.Entry<Long, String> name : postings.names.entrySet()) {
+                if (name.getValue().contains(needle)) {
+                    result.add(name.getKey());
+                }
+            }
+        } else {
+            List<Set<Long>> matches = new ArrayList<>();
+            for (String gram : trigrams(needle)) {
+                Set<Long> ids = postings.ids.get(gram);
+                if (ids == null) {
+                    return result;
+                }
+                matches.add(ids);
+            }
+            matches.sort(Comparator.comparingInt(Set::size));
+
+            for (Long id : matches.get(0)) {
+                String name = postings.names.get(id);
+                if (name != null && name.contains(needle)) {
+                    result.add(id);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    public int size() {
+        return postings.names.size();
+    }
+
+    private static String fold(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String folded) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            grams.add(folded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static class Postings {
+
+        private final Map<String, Set<Long>> ids = new ConcurrentHashMap<>();
+        private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+        private void put(Long id, String name) {
+            remove(id);
+            if (name == null) {
+                return;
+            }
+            String folded = fold(name);
+            names.put(id, folded);
+            for (String gram : trigrams(folded)) {
+                ids.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+
+        private void remove(Long id) {
+            String oldName = names.remove(id);
+            if (oldName == null) {
+                return;
+            }
+            for (String gram : trigrams(oldName)) {
+                Set<Long> gramIds = ids.get(gram);
+                if (gramIds != null) {
+                    gramIds.remove(id);
+                    if (gramIds.isEmpty()) {
+                        ids.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import oop.libapp.exception.APIExceptionHandler;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.message.ErrorMessage;
 import oop.libapp.message.IErrorMessage;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -25,6 +27,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -64,7 +67,7 @@ public class AuthorControllerTest {
     @Test
     public void getEmptyAuthorsList() throws Exception {
         // Given
-        given(authorService.findAll()).willReturn(new ArrayList<>());
+        given(authorService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(new ArrayList<>()));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -86,7 +89,7 @@ public class AuthorControllerTest {
         JsonContent<List<Author>> authorJsonContent = jsonAuthors.write(authors);
 
         // Given
-        given(authorService.findAll()).willReturn(authors);
+        given(authorService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(authors));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -110,7 +113,7 @@ public class AuthorControllerTest {
         JsonContent<List<Author>> authorJsonContent = jsonAuthors.write(expectedAuthors);
 
         // Given
-        given(authorService.findAllByNameContaining("John")).willReturn(expectedAuthors);
+        given(authorService.findAllByNameContaining(eq("John"), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(expectedAuthors));
 
         // When
         MockHttpServletResponse response = mvc.perform(
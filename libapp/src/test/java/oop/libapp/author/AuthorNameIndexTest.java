@@ -0,0 +1,63 @@
+package oop.libapp.author;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuthorNameIndexTest {
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @InjectMocks
+    private AuthorNameIndex authorNameIndex;
+
+    @Before
+    public void setup() {
+        given(authorRepository.findAllIdsAndNames()).willReturn(Arrays.asList(
+                new Object[]{1L, "Jorge Luis Borges"},
+                new Object[]{2L, "Italo Calvino"}
+        ));
+        authorNameIndex.rebuild();
+    }
+
+    @Test
+    public void savedAuthorIsFound() {
+        // When
+        authorNameIndex.put(3L, "Ursula K. Le Guin");
+
+        // Then
+        assertThat(authorNameIndex.search("le guin")).containsExactly(3L);
+        assertThat(authorNameIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void savedNameReplacesOldOne() {
+        // When
+        authorNameIndex.put(1L, "J. L. Borges");
+
+        // Then
+        assertThat(authorNameIndex.search("jorge")).isEmpty();
+        assertThat(authorNameIndex.search("borges")).containsExactly(1L);
+        assertThat(authorNameIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void removedAuthorIsNotFound() {
+        // When
+        authorNameIndex.remove(2L);
+
+        // Then
+        assertThat(authorNameIndex.search("calvino")).isEmpty();
+        assertThat(authorNameIndex.size()).isEqualTo(1);
+    }
+}
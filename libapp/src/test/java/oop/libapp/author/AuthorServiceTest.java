@@ -0,0 +1,70 @@
+package oop.libapp.author;
+
+import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.CachedEntityLoader;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({AuthorService.class, AuthorNameIndex.class, CachedEntityLoader.class})
+public class AuthorServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuthorService authorService;
+
+    // the cache outlives the database of every test context, start without stale authors
+    @Before
+    public void setup() {
+        entityManagerFactory.getCache().evict(Author.class);
+    }
+
+    @Test
+    public void authorsAreReturnedInRequestedOrder() throws Exception {
+        // Given
+        Long borges = entityManager.persistAndGetId(new Author("Borges", "Test author description"), Long.class);
+        Long calvino = entityManager.persistAndGetId(new Author("Calvino", "Test author description"), Long.class);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Author> authors = authorService.findAllById(Arrays.asList(calvino, borges, calvino));
+
+        // Then
+        assertThat(authors).extracting(Author::getName).containsExactly("Calvino", "Borges", "Calvino");
+    }
+
+    @Test
+    public void allMissingIdsAreReported() {
+        // Given
+        Long borges = entityManager.persistAndGetId(new Author("Borges", "Test author description"), Long.class);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Throwable thrown = catchThrowable(() -> authorService.findAllById(Arrays.asList(-1L, borges, -3L)));
+
+        // Then
+        assertThat(thrown).isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Authors with these ids not found: [-1, -3]");
+    }
+}
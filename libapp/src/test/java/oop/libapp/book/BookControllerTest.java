@@ -9,10 +9,13 @@ import oop.libapp.message.ErrorMessage;
 import oop.libapp.message.IErrorMessage;
 import oop.libapp.author.IAuthorService;
 import oop.libapp.genre.IGenreService;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -29,8 +32,13 @@ import java.util.*;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -60,6 +68,7 @@ public class BookControllerTest {
     private APIExceptionHandler exceptionHandler;
 
     private JacksonTester<List<Book>> jsonBooks;
+    private JacksonTester<List<BookSummary>> jsonBookSummaries;
     private JacksonTester<Book> jsonBook;
     private JacksonTester<NewBookDto> jsonBookDto;
     private JacksonTester<PatchBookDto> jsonPatchBookDto;
@@ -117,7 +126,7 @@ public class BookControllerTest {
     @Test
     public void getEmptyBooksList() throws Exception {
         // Given
-        given(bookService.findAll()).willReturn(new ArrayList<Book>());
+        given(bookService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(new ArrayList<Book>()));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -135,7 +144,7 @@ public class BookControllerTest {
         JsonContent<List<Book>> jsonBookContent = jsonBooks.write(allBooks);
 
         // Given
-        given(bookService.findAll()).willReturn(allBooks);
+        given(bookService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(allBooks));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -147,13 +156,60 @@ public class BookControllerTest {
         assertThat(response.getContentAsString()).isEqualTo(jsonBookContent.getJson());
     }
 
+    @Test
+    public void getBooksListReturnsContinuationTokenWhenMoreBooksExist() throws Exception {
+        // Given
+        given(bookService.findAll(argThat(page -> page.getAfterId() == 0 && page.getLimit() == 2)))
+                .willReturn(KeysetPage.of(allBooks, new KeysetRequest(0, 2), Book::getId));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/books").param("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonBooks.write(allBooks.subList(0, 2)).getJson());
+        assertThat(response.getHeader(KeysetPage.CONTINUATION_HEADER)).isNotNull();
+    }
+
+    @Test
+    public void getBooksListContinuesAfterLastSeenBook() throws Exception {
+        // Given
+        String continuation = KeysetPage.of(allBooks, new KeysetRequest(0, 2), Book::getId).getContinuationToken();
+        given(bookService.findAll(argThat(page -> page.getAfterId() == 2 && page.getLimit() == 2)))
+                .willReturn(KeysetPage.lastPage(allBooks.subList(2, 3)));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/books").param("limit", "2").param("continuation", continuation)
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonBooks.write(allBooks.subList(2, 3)).getJson());
+        assertThat(response.getHeader(KeysetPage.CONTINUATION_HEADER)).isNull();
+    }
+
+    @Test
+    public void getBooksListRejectsInvalidContinuationToken() throws Exception {
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/books").param("continuation", "not-a-token")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(response.getContentAsString()).contains("Continuation token is not valid");
+    }
+
     @Test
     public void getNotEmptyBooksListFilteredByGenre() throws Exception {
         // Expected json
         JsonContent<List<Book>> jsonBookContent = jsonBooks.write(firstGenreBooks);
 
         // Given
-        given(bookService.findAllByGenresContainingName("genre1")).willReturn(firstGenreBooks);
+        given(bookService.findAllByGenresContainingName(eq("genre1"), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(firstGenreBooks));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -171,7 +227,7 @@ public class BookControllerTest {
         JsonContent<List<Book>> jsonBookContent = jsonBooks.write(firstTitleBooks);
 
         // Given
-        given(bookService.findAllByTitleContaining("First")).willReturn(firstTitleBooks);
+        given(bookService.findAllByTitleContaining(eq("First"), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(firstTitleBooks));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -189,7 +245,7 @@ public class BookControllerTest {
         JsonContent<List<Book>> jsonBookContent = jsonBooks.write(firstAuthorBooks);
 
         // Given
-        given(bookService.findAllByAuthorsContainingName("author1")).willReturn(firstAuthorBooks);
+        given(bookService.findAllByAuthorsContainingName(eq("author1"), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(firstAuthorBooks));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -201,6 +257,56 @@ public class BookControllerTest {
         assertThat(response.getContentAsString()).isEqualTo(jsonBookContent.getJson());
     }
 
+    @Test
+    public void getBookSummariesPassesCriteriaAndPage() throws Exception {
+        // Expected json
+        List<BookSummary> summaries = Collections.singletonList(new BookSummary(3L, "Third book",
+                Arrays.asList("Test author1", "Test author2"), Arrays.asList("Test genre1", "Test genre2")));
+        JsonContent<List<BookSummary>> jsonSummaryContent = jsonBookSummaries.write(summaries);
+
+        // Given
+        given(bookService.findSummaries(argThat(criteria -> "Third".equals(criteria.getTitle())),
+                argThat(page -> page.getLimit() == 1)))
+                .willReturn(KeysetPage.lastPage(summaries));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/books/summaries").param("title", "Third").param("limit", "1")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonSummaryContent.getJson());
+    }
+
+    @Test
+    public void searchBooksCombinesAllPredicates() throws Exception {
+        // Expected json
+        JsonContent<List<Book>> jsonBookContent = jsonBooks.write(firstTitleBooks);
+
+        // Given
+        given(bookService.search(argThat(criteria -> "First".equals(criteria.getTitle())
+                && "author1".equals(criteria.getAuthor())
+                && "English".equals(criteria.getLanguage())
+                && Integer.valueOf(1990).equals(criteria.getMinPublicationYear())
+                && Integer.valueOf(500).equals(criteria.getMaxNumberOfPages())), any(KeysetRequest.class)))
+                .willReturn(KeysetPage.lastPage(firstTitleBooks));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/books/search")
+                        .param("title", "First")
+                        .param("author", "author1")
+                        .param("language", "English")
+                        .param("minPublicationYear", "1990")
+                        .param("maxNumberOfPages", "500")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonBookContent.getJson());
+    }
+
     @Test
     public void getExistingBookWorks() throws Exception {
         Book book = allBooks.get(0);
@@ -289,7 +395,8 @@ public class BookControllerTest {
         JsonContent<NewBookDto> bookDtoJsonContent = jsonBookDto.write(newBookDto);
 
         // Given
-        given(authorService.findById(anyLong())).willThrow(new ResourceNotFoundException("Author with this id not found"));
+        given(authorService.findAllById(Arrays.asList(1L, 2L, 3L)))
+                .willThrow(new ResourceNotFoundException("Authors with these ids not found: [2, 3]"));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -300,7 +407,7 @@ public class BookControllerTest {
 
         // Then
         assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
-        assertThat(response.getContentAsString()).contains("Author with this id not found");
+        assertThat(response.getContentAsString()).contains("Authors with these ids not found: [2, 3]");
     }
 
     @Test
@@ -313,8 +420,10 @@ public class BookControllerTest {
         JsonContent<NewBookDto> bookDtoJsonContent = jsonBookDto.write(newBookDto);
 
         // Given
-        given(authorService.findById(anyLong())).willReturn(new Author("Test author name", "Test author description"));
-        given(genreService.findById(1L)).willThrow(new ResourceNotFoundException("Genre with this id not found"));
+        given(authorService.findAllById(Arrays.asList(1L, 2L, 3L)))
+                .willReturn(Collections.singletonList(new Author("Test author name", "Test author description")));
+        given(genreService.findAllById(Collections.singletonList(1L)))
+                .willThrow(new ResourceNotFoundException("Genres with these ids not found: [1]"));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -325,7 +434,7 @@ public class BookControllerTest {
 
         // Then
         assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
-        assertThat(response.getContentAsString()).contains("Genre with this id not found");
+        assertThat(response.getContentAsString()).contains("Genres with these ids not found: [1]");
     }
 
     @Test
@@ -440,6 +549,58 @@ public class BookControllerTest {
         assertThat(response.getContentAsString()).isEqualTo(bookJsonContent.getJson());
     }
 
+    @Test
+    public void patchBookChangesTheCopiesBeforeLoadingTheBook() throws Exception {
+        PatchBookDto patchBookDto = new PatchBookDto();
+        patchBookDto.setCopies(5);
+
+        // Sent json
+        JsonContent<PatchBookDto> patchBookDtoJsonContent = jsonPatchBookDto.write(patchBookDto);
+
+        // Given
+        Book book = allBooks.get(1);
+        given(bookService.findById(2L)).willReturn(book);
+        given(bookService.save(book)).willReturn(book);
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                patch("/api/books/2")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(patchBookDtoJsonContent.getJson())
+                        .contentType(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        InOrder inOrder = inOrder(bookService);
+        inOrder.verify(bookService).setCopies(2L, 5);
+        inOrder.verify(bookService).findById(2L);
+    }
+
+    @Test
+    public void patchBookCannotWithdrawCheckedOutCopies() throws Exception {
+        PatchBookDto patchBookDto = new PatchBookDto();
+        patchBookDto.setCopies(1);
+
+        // Sent json
+        JsonContent<PatchBookDto> patchBookDtoJsonContent = jsonPatchBookDto.write(patchBookDto);
+
+        // Given
+        willThrow(new BookNotAvailableException("More copies of this book are checked out"))
+                .given(bookService).setCopies(2L, 1);
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                patch("/api/books/2")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(patchBookDtoJsonContent.getJson())
+                        .contentType(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.CONFLICT.value());
+        assertThat(response.getContentAsString()).contains("More copies of this book are checked out");
+        verify(bookService, never()).save(any(Book.class));
+    }
+
     @Test
     public void deleteBookDeletesExistingBook() throws Exception {
         // Given
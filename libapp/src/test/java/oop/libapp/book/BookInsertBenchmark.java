@@ -0,0 +1,108 @@
+package oop.libapp.book;
+
+import oop.libapp.SpringLibraryApp;
+import oop.libapp.author.Author;
+import oop.libapp.genre.Genre;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports 100k books, each with its book info and one author and genre link, through the
+ * entity manager in flushed and cleared chunks, once with JDBC batching switched off and once
+ * with the configured batch size. Before the ids came from pooled sequences every insert was
+ * an IDENTITY insert, which Hibernate never batches, so a batch size of 1 reproduces the old
+ * round trip per row.
+ *
+ * The application talks to an in-memory H2 database through its TCP server, so every round
+ * trip crosses a socket as it would with MySQL; over a real network the gap is larger still.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BookInsertBenchmark {
+
+    private static final int BOOKS = 100_000;
+    private static final int CHUNK_SIZE = 1000;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private Server databaseServer;
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private Long authorId;
+    private Long genreId;
+
+    @Setup
+    public void setup() throws SQLException {
+        databaseServer = Server.createTcpServer("-tcpPort", "0").start();
+        context = new SpringApplicationBuilder(SpringLibraryApp.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:tcp://localhost:" + databaseServer.getPort() + "/mem:benchmark",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.devtools.restart.enabled=false",
+                        "--logging.level.root=WARN");
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        transactionTemplate.execute(status -> {
+            Author author = new Author("Benchmark author", "Author of every benchmark book");
+            Genre genre = new Genre("Benchmark genre", "Genre of every benchmark book");
+            entityManager.persist(author);
+            entityManager.persist(genre);
+            authorId = author.getId();
+            genreId = genre.getId();
+            return null;
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        databaseServer.stop();
+    }
+
+    @Benchmark
+    public int importBooks() {
+        for (int from = 0; from < BOOKS; from += CHUNK_SIZE) {
+            int chunkStart = from;
+            transactionTemplate.execute(status -> {
+                Author author = entityManager.getReference(Author.class, authorId);
+                Genre genre = entityManager.getReference(Genre.class, genreId);
+                for (int i = chunkStart; i < chunkStart + CHUNK_SIZE; i++) {
+                    entityManager.persist(new Book("Book " + i,
+                            new HashSet<>(Collections.singletonList(author)), Collections.singletonList(genre)));
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return null;
+            });
+        }
+        return BOOKS;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package oop.libapp.book;
+
+import oop.libapp.author.Author;
+import oop.libapp.genre.Genre;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BookRelationIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookRelationIndex bookRelationIndex;
+
+    @Before
+    public void setup() {
+        // book 1 by authors 10 and 11 in genre 20, book 2 by author 10 in genres 20 and 21
+        given(bookRepository.findAllBookAuthorIds()).willReturn(Arrays.asList(
+                new Object[]{1L, 10L},
+                new Object[]{1L, 11L},
+                new Object[]{2L, 10L}
+        ));
+        given(bookRepository.findAllBookGenreIds()).willReturn(Arrays.asList(
+                new Object[]{1L, 20L},
+                new Object[]{2L, 20L},
+                new Object[]{2L, 21L}
+        ));
+        bookRelationIndex.rebuild();
+    }
+
+    @Test
+    public void booksOfAnyGivenAuthorOrGenreAreFound() {
+        // Then
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Arrays.asList(11L, 10L))).containsExactly(1L, 2L);
+        assertThat(bookRelationIndex.findBookIdsByGenreIds(Collections.singletonList(21L))).containsExactly(2L);
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(99L))).isEmpty();
+    }
+
+    @Test
+    public void savedBookReplacesItsRelations() {
+        // When
+        bookRelationIndex.put(1L, Collections.singletonList(12L), Collections.singletonList(21L));
+
+        // Then
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(11L))).isEmpty();
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(10L))).containsExactly(2L);
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(12L))).containsExactly(1L);
+        assertThat(bookRelationIndex.findBookIdsByGenreIds(Collections.singletonList(20L))).containsExactly(2L);
+        assertThat(bookRelationIndex.findBookIdsByGenreIds(Collections.singletonList(21L))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void savedBookEntityIsLinkedToItsAuthorsAndGenres() {
+        // Given
+        Author author = new Author("Author", "Test author description");
+        author.setId(13L);
+        Genre genre = new Genre("Genre", "Test genre description");
+        genre.setId(22L);
+        Book book = new Book("Title", new HashSet<>(Collections.singletonList(author)), Collections.singletonList(genre));
+        book.setId(3L);
+
+        // When
+        bookRelationIndex.put(book);
+
+        // Then
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(13L))).containsExactly(3L);
+        assertThat(bookRelationIndex.findBookIdsByGenreIds(Collections.singletonList(22L))).containsExactly(3L);
+    }
+
+    @Test
+    public void removedBookIsNotFound() {
+        // When
+        bookRelationIndex.remove(2L);
+
+        // Then
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(10L))).containsExactly(1L);
+        assertThat(bookRelationIndex.findBookIdsByGenreIds(Arrays.asList(20L, 21L))).containsExactly(1L);
+    }
+
+    @Test
+    public void relationsSavedDuringRebuildAreKept() {
+        // Given
+        // book 3 is saved here while the rebuild reads the join tables, which miss it
+        given(bookRepository.findAllBookGenreIds()).willAnswer(invocation -> {
+            assertThat(bookRelationIndex.findBookIdsByGenreIds(Collections.singletonList(20L))).containsExactly(1L, 2L);
+            bookRelationIndex.put(3L, Collections.singletonList(10L), Collections.singletonList(20L));
+            return Collections.singletonList(new Object[]{1L, 20L});
+        });
+
+        // When
+        bookRelationIndex.rebuild();
+
+        // Then
+        assertThat(bookRelationIndex.findBookIdsByGenreIds(Collections.singletonList(20L))).containsExactly(1L, 3L);
+        assertThat(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(10L))).containsExactly(1L, 2L, 3L);
+    }
+}
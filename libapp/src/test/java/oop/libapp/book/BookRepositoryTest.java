@@ -0,0 +1,146 @@
+package oop.libapp.book;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import oop.libapp.author.Author;
+import oop.libapp.genre.Genre;
+import oop.libapp.util.KeysetRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class BookRepositoryTest {
+
+    private static final int BOOKS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Statistics statistics;
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private List<Long> bookIds = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        for (int i = 0; i < BOOKS; i++) {
+            Author author = entityManager.persist(new Author("Author " + i, "Description " + i));
+            Author coAuthor = entityManager.persist(new Author("Co-author " + i, "Description " + i));
+            Genre genre = entityManager.persist(new Genre("Genre " + i, "Description " + i));
+            Genre subGenre = entityManager.persist(new Genre("Sub-genre " + i, "Description " + i));
+            Book book = entityManager.persist(new Book("Title " + i,
+                    new HashSet<>(Arrays.asList(author, coAuthor)), Arrays.asList(genre, subGenre)));
+            bookIds.add(book.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        SessionFactory sessionFactory = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    public void bookPageIsSerializedWithConstantQueries() throws Exception {
+        // When
+        List<Book> books = bookRepository.findAllByIdGreaterThanOrderByIdAsc(0L, KeysetRequest.first().toPageable());
+        objectMapper.writeValueAsString(books);
+
+        // Then
+        // The page joined with the book infos, then one batch each for the authors and genres
+        assertThat(books).hasSize(BOOKS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void booksByIdAreSerializedWithConstantQueries() throws Exception {
+        // When
+        List<Book> books = bookRepository.findAllByIdIn(bookIds);
+        objectMapper.writeValueAsString(books);
+
+        // Then
+        assertThat(books).hasSize(BOOKS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void bookSummariesAreReadWithoutLoadingEntities() {
+        // When
+        List<Long> ids = bookRepository.findIdsAfter(0L, KeysetRequest.first().toPageable());
+        List<BookSummary> summaries = summaries(ids);
+
+        // Then
+        // the page of ids, then the titles, the author names and the genre names
+        assertThat(summaries).hasSize(BOOKS);
+        assertThat(summaries.get(0).getTitle()).isEqualTo("Title 0");
+        assertThat(summaries.get(0).getAuthorNames()).containsExactly("Author 0", "Co-author 0");
+        assertThat(summaries.get(0).getGenreNames()).containsExactly("Genre 0", "Sub-genre 0");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    public void bookSummaryKeepsDifferentAuthorsSharingAName() {
+        // Given
+        Author author = entityManager.persist(new Author("Namesake", "Description"));
+        Author otherAuthor = entityManager.persist(new Author("Namesake", "Other description"));
+        Genre genre = entityManager.persist(new Genre("Genre", "Description"));
+        Book book = entityManager.persistAndFlush(new Book("Title",
+                new HashSet<>(Arrays.asList(author, otherAuthor)), Arrays.asList(genre)));
+
+        // When
+        List<BookSummary> summaries = summaries(Arrays.asList(book.getId()));
+
+        // Then
+        assertThat(summaries).hasSize(1);
+        assertThat(summaries.get(0).getAuthorNames()).containsExactly("Namesake", "Namesake");
+        assertThat(summaries.get(0).getGenreNames()).containsExactly("Genre");
+    }
+
+    @Test
+    public void copiesAreAddedAndWithdrawnAroundTheCheckedOutOnes() {
+        // Given
+        Book book = new Book("Three copies", new HashSet<>(), new ArrayList<>());
+        book.setCopies(3);
+        Long id = entityManager.persistAndFlush(book).getId();
+        bookRepository.decrementAvailableCopies(id);
+        bookRepository.decrementAvailableCopies(id);
+
+        // When
+        int added = bookRepository.updateCopies(id, 5);
+        int withdrawn = bookRepository.updateCopies(id, 2);
+        int refused = bookRepository.updateCopies(id, 1);
+
+        // Then
+        // two copies are checked out, so at least two must remain
+        assertThat(added).isEqualTo(1);
+        assertThat(withdrawn).isEqualTo(1);
+        assertThat(refused).isZero();
+        Book updated = entityManager.find(Book.class, id);
+        assertThat(updated.getCopies()).isEqualTo(2);
+        assertThat(updated.getAvailableCopies()).isZero();
+    }
+
+    private List<BookSummary> summaries(List<Long> ids) {
+        return BookSummary.fromRows(bookRepository.findIdsAndTitlesByIdIn(ids),
+                bookRepository.findAuthorRowsByIdIn(ids), bookRepository.findGenreRowsByIdIn(ids));
+    }
+}
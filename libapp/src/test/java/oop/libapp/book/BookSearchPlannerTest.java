@@ -0,0 +1,111 @@
+package oop.libapp.book;
+
+import oop.libapp.author.IAuthorService;
+import oop.libapp.genre.IGenreService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BookSearchPlannerTest {
+
+    @Mock
+    private BookTitleIndex bookTitleIndex;
+
+    @Mock
+    private BookRelationIndex bookRelationIndex;
+
+    @Mock
+    private IAuthorService authorService;
+
+    @Mock
+    private IGenreService genreService;
+
+    @Mock
+    private BookInfoRepository bookInfoRepository;
+
+    @InjectMocks
+    private BookSearchPlanner bookSearchPlanner;
+
+    @Test
+    public void indexedPredicatesAreIntersected() {
+        // Given
+        BookSearchCriteria criteria = new BookSearchCriteria();
+        criteria.setTitle("book");
+        criteria.setAuthor("borges");
+        given(bookTitleIndex.search("book")).willReturn(Arrays.asList(1L, 2L, 3L, 5L, 8L));
+        given(authorService.findIdsByNameContaining("borges")).willReturn(Collections.singletonList(7L));
+        given(bookRelationIndex.findBookIdsByAuthorIds(Collections.singletonList(7L))).willReturn(Arrays.asList(2L, 4L, 8L));
+
+        // When
+        long[] ids = bookSearchPlanner.findIds(criteria);
+
+        // Then
+        assertThat(ids).containsExactly(2L, 8L);
+        verifyZeroInteractions(bookInfoRepository);
+    }
+
+    @Test
+    public void bookInfoQueryIsSkippedWhenIndexedPredicatesMatchNothing() {
+        // Given
+        BookSearchCriteria criteria = new BookSearchCriteria();
+        criteria.setTitle("nothing");
+        criteria.setLanguage("English");
+        given(bookTitleIndex.search("nothing")).willReturn(Collections.emptyList());
+
+        // When
+        long[] ids = bookSearchPlanner.findIds(criteria);
+
+        // Then
+        assertThat(ids).isEmpty();
+        verifyZeroInteractions(bookInfoRepository);
+    }
+
+    @Test
+    public void fewCandidatesAreFilteredInsideBookInfoQuery() {
+        // Given
+        BookSearchCriteria criteria = new BookSearchCriteria();
+        criteria.setGenre("fantasy");
+        criteria.setMinPublicationYear(1950);
+        given(genreService.findIdsByNameContaining("fantasy")).willReturn(Collections.singletonList(3L));
+        given(bookRelationIndex.findBookIdsByGenreIds(Collections.singletonList(3L))).willReturn(Arrays.asList(4L, 9L));
+        given(bookInfoRepository.findIdsMatchingAmong(Arrays.asList(4L, 9L), null, 1950, null, null, null))
+                .willReturn(Collections.singletonList(9L));
+
+        // When
+        long[] ids = bookSearchPlanner.findIds(criteria);
+
+        // Then
+        assertThat(ids).containsExactly(9L);
+        verify(bookInfoRepository, never()).findIdsMatching(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void bookInfoPredicatesAloneRunSingleQuery() {
+        // Given
+        BookSearchCriteria criteria = new BookSearchCriteria();
+        criteria.setLanguage("English");
+        criteria.setMaxNumberOfPages(300);
+        given(bookInfoRepository.findIdsMatching("English", null, null, null, 300)).willReturn(Arrays.asList(6L, 1L));
+
+        // When
+        long[] ids = bookSearchPlanner.findIds(criteria);
+
+        // Then
+        assertThat(ids).containsExactly(1L, 6L);
+        verify(bookInfoRepository, never()).findIdsMatchingAmong(anyCollection(), any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,103 @@
+package oop.libapp.book;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BookTitleIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookTitleIndex bookTitleIndex;
+
+    @Before
+    public void setup() {
+        given(bookRepository.findAllIdsAndTitles()).willReturn(Arrays.asList(
+                new Object[]{1L, "First book"},
+                new Object[]{2L, "Second book"},
+                new Object[]{3L, "The Book of Sand"}
+        ));
+        bookTitleIndex.rebuild();
+    }
+
+    @Test
+    public void searchIsCaseInsensitive() {
+        // When
+        List<Long> ids = bookTitleIndex.search("BOOK");
+
+        // Then
+        assertThat(ids).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void searchMatchesIncompleteLastWord() {
+        // When
+        List<Long> ids = bookTitleIndex.search("book of sa");
+
+        // Then
+        assertThat(ids).containsExactly(3L);
+    }
+
+    @Test
+    public void searchRequiresWordsInTheSameOrder() {
+        // When
+        List<Long> ids = bookTitleIndex.search("book first");
+
+        // Then
+        assertThat(ids).isEmpty();
+    }
+
+    @Test
+    public void savedTitleReplacesOldOne() {
+        // When
+        bookTitleIndex.put(1L, "Renamed novel");
+
+        // Then
+        assertThat(bookTitleIndex.search("first")).isEmpty();
+        assertThat(bookTitleIndex.search("novel")).containsExactly(1L);
+    }
+
+    @Test
+    public void removedBookIsNotFound() {
+        // When
+        bookTitleIndex.remove(2L);
+
+        // Then
+        assertThat(bookTitleIndex.search("book")).containsExactly(1L, 3L);
+        assertThat(bookTitleIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchDuringRebuildSeesTheWholeIndex() {
+        // Given
+        // another node added a book, and a title is saved here while the rebuild query runs
+        given(bookRepository.findAllIdsAndTitles()).willAnswer(invocation -> {
+            assertThat(bookTitleIndex.search("book")).containsExactly(1L, 2L, 3L);
+            bookTitleIndex.put(5L, "Book of Imaginary Beings");
+            return Arrays.asList(
+                    new Object[]{1L, "First book"},
+                    new Object[]{2L, "Second book"},
+                    new Object[]{3L, "The Book of Sand"},
+                    new Object[]{4L, "Book of Sand, again"}
+            );
+        });
+
+        // When
+        bookTitleIndex.rebuild();
+
+        // Then
+        assertThat(bookTitleIndex.search("book of")).containsExactly(3L, 4L, 5L);
+    }
+}
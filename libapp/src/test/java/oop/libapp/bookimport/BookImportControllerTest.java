@@ -0,0 +1,84 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.exception.APIExceptionHandler;
+import oop.libapp.message.ErrorMessage;
+import oop.libapp.message.IErrorMessage;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BookImportControllerTest {
+
+    private MockMvc mvc;
+
+    @Mock
+    private WebApplicationContext context;
+
+    @Mock
+    private IBookImportService bookImportService;
+
+    @InjectMocks
+    private BookImportController bookImportController;
+
+    @InjectMocks
+    private APIExceptionHandler exceptionHandler;
+
+    @Before
+    public void setup() {
+        mvc = MockMvcBuilders.standaloneSetup(bookImportController).setControllerAdvice(exceptionHandler).build();
+    }
+
+    @Test
+    public void uploadedDocumentIsAcceptedAsJob() throws Exception {
+        // Given
+        ImportJob job = new ImportJob("/tmp/books.csv", "admin");
+        job.setId(7L);
+        given(bookImportService.start(any(InputStream.class), eq("admin"))).willReturn(job);
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/api/books/import").contentType("text/csv").content("title\nFicciones\n")
+                        .principal(new UsernamePasswordAuthenticationToken("admin", null)))
+                .andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.ACCEPTED.value());
+        assertThat(response.getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/books/import/7");
+        assertThat(response.getContentAsString()).contains("\"status\":\"QUEUED\"").doesNotContain("books.csv");
+    }
+
+    @Test
+    public void resumingFinishedJobIsConflict() throws Exception {
+        // Given
+        given(context.getBean(IErrorMessage.class)).willReturn(new ErrorMessage());
+        given(bookImportService.resume(7L))
+                .willThrow(new ImportJobNotResumableException("Only failed or interrupted import jobs can be resumed"));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(post("/api/books/import/7/resume"))
+                .andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.CONFLICT.value());
+        assertThat(response.getContentAsString()).contains("can be resumed");
+    }
+}
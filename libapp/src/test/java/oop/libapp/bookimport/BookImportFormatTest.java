@@ -0,0 +1,58 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.book.BookInfo;
+import oop.libapp.exception.MalformedCsvException;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BookImportFormatTest {
+
+    @Test
+    public void headerWithoutTitleIsRejected() {
+        assertThatThrownBy(() -> BookImportFormat.fromHeader(Arrays.asList("isbn", "authors")))
+                .isInstanceOf(MalformedCsvException.class)
+                .hasMessageContaining("title");
+    }
+
+    @Test
+    public void recordIsParsedByColumnName() throws Exception {
+        // Given
+        BookImportFormat format = BookImportFormat.fromHeader(
+                Arrays.asList("authors", "title", "genres", "publicationYear", "language"));
+
+        // When
+        BookImportRecord record = format.parse(
+                Arrays.asList("Borges; Bioy Casares ;Borges", " Ficciones ", "", "1944", "Spanish"));
+        BookInfo bookInfo = new BookInfo();
+        record.applyTo(bookInfo);
+
+        // Then
+        assertThat(record.getTitle()).isEqualTo("Ficciones");
+        assertThat(record.getAuthorNames()).containsExactly("Borges", "Bioy Casares");
+        assertThat(record.getGenreNames()).isEmpty();
+        assertThat(bookInfo.getPublicationYear()).isEqualTo(1944);
+        assertThat(bookInfo.getLanguage()).isEqualTo("Spanish");
+        assertThat(bookInfo.getIsbn()).isNull();
+    }
+
+    @Test
+    public void recordWithoutTitleOrWithInvalidNumberIsRejected() throws Exception {
+        // Given
+        BookImportFormat format = BookImportFormat.fromHeader(Arrays.asList("title", "numberOfPages"));
+
+        // Then
+        assertThatThrownBy(() -> format.parse(Arrays.asList(" ", "100")))
+                .isInstanceOf(RejectedRecordException.class)
+                .hasMessage("has no title");
+        assertThatThrownBy(() -> format.parse(Arrays.asList("Ficciones", "many")))
+                .isInstanceOf(RejectedRecordException.class)
+                .hasMessageContaining("numberOfPages");
+        assertThatThrownBy(() -> format.parse(Arrays.asList("Ficciones")))
+                .isInstanceOf(RejectedRecordException.class)
+                .hasMessageContaining("expected 2");
+    }
+}
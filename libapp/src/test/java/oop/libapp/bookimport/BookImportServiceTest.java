@@ -0,0 +1,164 @@
+package oop.libapp.bookimport;
+
+import oop.libapp.author.AuthorNameIndex;
+import oop.libapp.author.AuthorRepository;
+import oop.libapp.book.BookRelationIndex;
+import oop.libapp.book.BookRepository;
+import oop.libapp.book.BookTitleIndex;
+import oop.libapp.genre.GenreNameIndex;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// chunks must commit on their own, as they do on the import thread
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BookImportService.class, AuthorNameIndex.class, GenreNameIndex.class, BookTitleIndex.class, BookRelationIndex.class})
+public class BookImportServiceTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private AuthorNameIndex authorNameIndex;
+
+    @Autowired
+    private BookTitleIndex bookTitleIndex;
+
+    @Test
+    public void booksAreImportedWithSharedAuthorsAndGenres() throws Exception {
+        // Given
+        ImportJob job = queueJob("title,authors,genres,publicationYear\n" +
+                "Ficciones,Jorge Luis Borges,Short stories,1944\n" +
+                "El Aleph,Jorge Luis Borges,Short stories;Fantasy,1949\n" +
+                ",Nobody,Fantasy,2000\n" +
+                "Invisible Cities,Italo Calvino,Fantasy,1972\n");
+
+        // When
+        bookImportService.run(job.getId());
+
+        // Then
+        ImportJob finished = importJobRepository.findById(job.getId()).get();
+        assertThat(finished.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.getRowsProcessed()).isEqualTo(4);
+        assertThat(finished.getRowsRejected()).isEqualTo(1);
+        assertThat(finished.getLastRejection()).isEqualTo("Record 4 has no title");
+        assertThat(finished.getBooksImported()).isEqualTo(3);
+        assertThat(finished.getAuthorsCreated()).isEqualTo(2);
+        assertThat(finished.getGenresCreated()).isEqualTo(2);
+
+        List<Object[]> borges = authorRepository.findIdsAndNamesByLowerCaseNameIn(Collections.singleton("jorge luis borges"));
+        assertThat(borges).hasSize(1);
+        assertThat(authorNameIndex.search("Luis Borges")).containsExactly((Long) borges.get(0)[0]);
+        assertThat(bookTitleIndex.search("Aleph")).hasSize(1);
+        assertThat(Files.exists(Paths.get(job.getFileName()))).isFalse();
+    }
+
+    @Test
+    public void resumedJobContinuesAfterCheckpoint() throws Exception {
+        // Given
+        ImportJob job = queueJob("title,authors\n" +
+                "Checkpointed one,Resumed author\n" +
+                "Checkpointed two,Resumed author\n" +
+                "After checkpoint,Resumed author\n");
+        job.setRowsProcessed(2);
+        importJobRepository.save(job);
+        long booksBefore = bookRepository.count();
+
+        // When
+        bookImportService.run(job.getId());
+
+        // Then
+        ImportJob finished = importJobRepository.findById(job.getId()).get();
+        assertThat(finished.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.getRowsProcessed()).isEqualTo(3);
+        assertThat(bookRepository.count()).isEqualTo(booksBefore + 1);
+        assertThat(bookTitleIndex.search("Checkpointed")).isEmpty();
+        assertThat(bookTitleIndex.search("After checkpoint")).hasSize(1);
+    }
+
+    @Test
+    public void namesDifferingOnlyInCaseShareOneRow() throws Exception {
+        // Given
+        ImportJob first = queueJob("title,authors,genres\n" +
+                "The Dispossessed,Ursula Le Guin,Utopian fiction\n" +
+                "The Lathe of Heaven,URSULA LE GUIN,utopian fiction\n");
+        bookImportService.run(first.getId());
+        ImportJob second = queueJob("title,authors,genres\n" +
+                "Always Coming Home,ursula le guin,Utopian Fiction\n");
+
+        // When
+        bookImportService.run(second.getId());
+
+        // Then
+        ImportJob firstFinished = importJobRepository.findById(first.getId()).get();
+        assertThat(firstFinished.getAuthorsCreated()).isEqualTo(1);
+        assertThat(firstFinished.getGenresCreated()).isEqualTo(1);
+        ImportJob secondFinished = importJobRepository.findById(second.getId()).get();
+        assertThat(secondFinished.getBooksImported()).isEqualTo(1);
+        assertThat(secondFinished.getAuthorsCreated()).isZero();
+        assertThat(secondFinished.getGenresCreated()).isZero();
+        List<Object[]> authors = authorRepository.findIdsAndNamesByLowerCaseNameIn(Collections.singleton("ursula le guin"));
+        assertThat(authors).hasSize(1);
+        assertThat(authors.get(0)[1]).isEqualTo("Ursula Le Guin");
+    }
+
+    @Test
+    public void abandonedJobsExpireAfterRetention() throws Exception {
+        // Given
+        ImportJob abandoned = finishedJob(ImportJobStatus.FAILED, 8);
+        ImportJob recent = finishedJob(ImportJobStatus.INTERRUPTED, 1);
+        ImportJob completed = finishedJob(ImportJobStatus.COMPLETED, 8);
+
+        // When
+        bookImportService.expireAbandonedJobs();
+
+        // Then
+        assertThat(importJobRepository.findById(abandoned.getId()).get().getStatus()).isEqualTo(ImportJobStatus.EXPIRED);
+        assertThat(Files.exists(Paths.get(abandoned.getFileName()))).isFalse();
+        assertThat(importJobRepository.findById(recent.getId()).get().getStatus()).isEqualTo(ImportJobStatus.INTERRUPTED);
+        assertThat(Files.exists(Paths.get(recent.getFileName()))).isTrue();
+        assertThat(importJobRepository.findById(completed.getId()).get().getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+        Files.deleteIfExists(Paths.get(recent.getFileName()));
+        Files.deleteIfExists(Paths.get(completed.getFileName()));
+    }
+
+    private ImportJob finishedJob(ImportJobStatus status, int daysAgo) throws Exception {
+        ImportJob job = queueJob("title\nUnread\n");
+        job.setStatus(status);
+        job.setFinishedAt(new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysAgo)));
+        return importJobRepository.save(job);
+    }
+
+    private ImportJob queueJob(String csv) throws Exception {
+        Path file = Files.createTempFile("books-", ".csv");
+        Files.write(file, csv.getBytes(StandardCharsets.UTF_8));
+        return importJobRepository.save(new ImportJob(file.toString(), "admin"));
+    }
+}
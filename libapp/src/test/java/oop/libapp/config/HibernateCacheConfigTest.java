@@ -0,0 +1,68 @@
+package oop.libapp.config;
+
+import oop.libapp.author.Author;
+import oop.libapp.author.AuthorRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// every lookup runs in its own transaction and session, as they do in the services
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class HibernateCacheConfigTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @After
+    public void cleanup() {
+        authorRepository.deleteAll();
+        entityManagerFactory.getCache().evict(Author.class);
+    }
+
+    @Test
+    public void secondLookupIsServedFromTheSecondLevelCache() {
+        // Given
+        Long id = authorRepository.save(new Author("Borges", "Test author description")).getId();
+        entityManagerFactory.getCache().evict(Author.class);
+        statistics.clear();
+
+        // When
+        authorRepository.findById(id);
+        long loadedAfterFirstLookup = statistics.getEntityLoadCount();
+        Author author = authorRepository.findById(id).get();
+
+        // Then
+        assertThat(author.getName()).isEqualTo("Borges");
+        assertThat(loadedAfterFirstLookup).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+        SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(Author.class.getName());
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getPutCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,65 @@
+package oop.libapp.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HibernateCacheStatisticsTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private SecondLevelCacheStatistics authorStatistics;
+
+    private HibernateCacheStatistics cacheStatistics;
+
+    @Before
+    public void setup() {
+        given(entityManagerFactory.unwrap(SessionFactory.class)).willReturn(sessionFactory);
+        given(sessionFactory.getStatistics()).willReturn(statistics);
+        cacheStatistics = new HibernateCacheStatistics(entityManagerFactory);
+    }
+
+    @Test
+    public void regionStatisticsAreSummarized() {
+        // Given
+        given(statistics.getSecondLevelCacheStatistics("oop.libapp.author.Author")).willReturn(authorStatistics);
+        given(authorStatistics.getHitCount()).willReturn(42L);
+        given(authorStatistics.getMissCount()).willReturn(3L);
+        given(authorStatistics.getPutCount()).willReturn(3L);
+        given(authorStatistics.getElementCountInMemory()).willReturn(3L);
+
+        // When
+        String summary = cacheStatistics.getRegionStatistics("oop.libapp.author.Author");
+
+        // Then
+        assertThat(summary).isEqualTo("hits=42, misses=3, puts=3, entries=3");
+    }
+
+    @Test
+    public void unknownRegionIsReported() {
+        // When
+        String summary = cacheStatistics.getRegionStatistics("oop.libapp.entry.Entry");
+
+        // Then
+        assertThat(summary).isEqualTo("No such region: oop.libapp.entry.Entry");
+    }
+}
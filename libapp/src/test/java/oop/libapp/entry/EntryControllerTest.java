@@ -3,14 +3,15 @@ package oop.libapp.entry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import oop.libapp.author.Author;
 import oop.libapp.book.Book;
+import oop.libapp.book.BookNotAvailableException;
 import oop.libapp.exception.APIExceptionHandler;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.genre.Genre;
 import oop.libapp.message.ErrorMessage;
 import oop.libapp.message.IErrorMessage;
-import oop.libapp.book.IBookService;
 import oop.libapp.register.User;
-import oop.libapp.register.IUserService;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -27,12 +28,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -49,12 +54,6 @@ public class EntryControllerTest {
     @Mock
     private IEntryService entryService;
 
-    @Mock
-    private IBookService bookService;
-
-    @Mock
-    private IUserService userService;
-
     @InjectMocks
     private EntryController entryController;
 
@@ -65,6 +64,10 @@ public class EntryControllerTest {
     private JacksonTester<NewEntryDto> jsonNewEntryDto;
     private JacksonTester<Entry> jsonEntry;
     private JacksonTester<PatchEntryDto> jsonPatchEntryDto;
+    private JacksonTester<BatchCheckoutDto> jsonBatchCheckoutDto;
+    private JacksonTester<BatchReturnDto> jsonBatchReturnDto;
+    private JacksonTester<List<BatchItemResult>> jsonBatchResults;
+    private JacksonTester<List<EntryActivity>> jsonActivity;
 
     private static List<Entry> testEntries;
 
@@ -105,7 +108,7 @@ public class EntryControllerTest {
     @Test
     public void getEmptyEntriesList() throws Exception {
         // Given
-        given(entryService.findAll()).willReturn(new ArrayList<>());
+        given(entryService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(new ArrayList<>()));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -125,7 +128,7 @@ public class EntryControllerTest {
         JsonContent<List<Entry>> jsonEntriesContent = jsonEntries.write(returnedEntries);
 
         // Given
-        given(entryService.findAllByReturned(true)).willReturn(returnedEntries);
+        given(entryService.findAllByReturned(eq(true), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(returnedEntries));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -149,7 +152,7 @@ public class EntryControllerTest {
         JsonContent<List<Entry>> jsonEntriesContent = jsonEntries.write(filteredByTitleEntries);
 
         // Given
-        given(entryService.findAllByBookTitleContaining("Test")).willReturn(filteredByTitleEntries);
+        given(entryService.findAllByBookTitleContaining(eq("Test"), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(filteredByTitleEntries));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -173,7 +176,7 @@ public class EntryControllerTest {
         JsonContent<List<Entry>> jsonEntriesContent = jsonEntries.write(filteredByUsernameEntries);
 
         // Given
-        given(entryService.findAllByUsername("user1")).willReturn(filteredByUsernameEntries);
+        given(entryService.findAllByUsername(eq("user1"), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(filteredByUsernameEntries));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -198,7 +201,7 @@ public class EntryControllerTest {
         JsonContent<List<Entry>> jsonEntriesContent = jsonEntries.write(filteredByAddedSinceEntries);
 
         // Given
-        given(entryService.findAllByAddedSince(IEntryService.AddedSince.WEEK)).willReturn(filteredByAddedSinceEntries);
+        given(entryService.findAllByAddedSince(eq(IEntryService.AddedSince.WEEK), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(filteredByAddedSinceEntries));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -211,13 +214,54 @@ public class EntryControllerTest {
         assertThat(response.getContentAsString()).isEqualTo(jsonEntriesContent.getJson());
     }
 
+    @Test
+    public void getActivityOfLastWeek() throws Exception {
+        List<EntryActivity> activity = Arrays.asList(
+                new EntryActivity(new Date(0), 3, 1),
+                new EntryActivity(new Date(EntryTimeline.DAY_MS), 0, 2));
+
+        // Given
+        given(entryService.findActivity(IEntryService.AddedSince.WEEK)).willReturn(activity);
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/entries/activity")
+                        .param("since", "week")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonActivity.write(activity).getJson());
+    }
+
+    @Test
+    public void getOpenEntriesOfUser() throws Exception {
+        List<Entry> openEntries = testEntries.stream().filter(e -> !e.getReturned()).collect(Collectors.toList());
+
+        // Expected json
+        JsonContent<List<Entry>> jsonEntriesContent = jsonEntries.write(openEntries);
+
+        // Given
+        given(entryService.findAllOpenByUsername(eq("user1"), any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(openEntries));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/entries/open")
+                        .param("username", "user1")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonEntriesContent.getJson());
+    }
+
     @Test
     public void getAllEntriesIfAddedSinceParameterIsWrong() throws Exception {
         // Expected json
         JsonContent<List<Entry>> jsonEntriesContent = jsonEntries.write(testEntries);
 
         // Given
-        given(entryService.findAll()).willReturn(testEntries);
+        given(entryService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(testEntries));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -236,7 +280,7 @@ public class EntryControllerTest {
         JsonContent<List<Entry>> jsonEntriesContent = jsonEntries.write(testEntries);
 
         // Given
-        given(entryService.findAll()).willReturn(testEntries);
+        given(entryService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(testEntries));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -296,7 +340,7 @@ public class EntryControllerTest {
         JsonContent<NewEntryDto> entryDtoJsonContent = jsonNewEntryDto.write(newEntryDto);
 
         // Given
-        given(bookService.findById(1L)).willThrow(new ResourceNotFoundException("Book with this id not found"));
+        given(entryService.checkOut(1L, "test-username")).willThrow(new ResourceNotFoundException("Book with this id not found"));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -319,7 +363,7 @@ public class EntryControllerTest {
         JsonContent<NewEntryDto> entryDtoJsonContent = jsonNewEntryDto.write(newEntryDto);
 
         // Given
-        given(userService.findUserByUsername("test-username")).willThrow(new ResourceNotFoundException("User with this username not found"));
+        given(entryService.checkOut(1L, "test-username")).willThrow(new ResourceNotFoundException("User with this username not found"));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -345,7 +389,7 @@ public class EntryControllerTest {
         JsonContent<Entry> entryJsonContent = jsonEntry.write(testEntries.get(0));
 
         // Given
-        given(entryService.save(any(Entry.class))).willReturn(testEntries.get(0));
+        given(entryService.checkOut(1L, "user1")).willReturn(testEntries.get(0));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -359,6 +403,69 @@ public class EntryControllerTest {
         assertThat(response.getContentAsString()).isEqualTo(entryJsonContent.getJson());
     }
 
+    @Test
+    public void newEntryCreationFailsIfNoCopyIsAvailable() throws Exception {
+        NewEntryDto newEntryDto = new NewEntryDto();
+        newEntryDto.setBorrowedBookId(1L);
+        newEntryDto.setBorrowerUsername("user1");
+
+        JsonContent<NewEntryDto> entryDtoJsonContent = jsonNewEntryDto.write(newEntryDto);
+
+        // Given
+        given(entryService.checkOut(1L, "user1")).willThrow(new BookNotAvailableException("No copy of this book is available"));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/api/entries")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(entryDtoJsonContent.getJson())
+                        .contentType(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.CONFLICT.value());
+        assertThat(response.getContentAsString()).contains("No copy of this book is available");
+    }
+
+    @Test
+    public void batchCheckoutReportsEveryBook() throws Exception {
+        BatchCheckoutDto batchCheckoutDto = new BatchCheckoutDto();
+        batchCheckoutDto.setBorrowerUsername("user1");
+        batchCheckoutDto.setBookIds(Arrays.asList(1L, 999L, 2L));
+
+        List<BatchItemResult> results = Arrays.asList(
+                BatchItemResult.succeeded(1L, 10L),
+                BatchItemResult.failed(999L, "Book with this id not found"),
+                BatchItemResult.failed(2L, "No copy of this book is available"));
+
+        // Given
+        given(entryService.checkOutAll(Arrays.asList(1L, 999L, 2L), "user1")).willReturn(results);
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/api/entries/batch")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(jsonBatchCheckoutDto.write(batchCheckoutDto).getJson())
+                        .contentType(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonBatchResults.write(results).getJson());
+    }
+
+    @Test
+    public void batchReturnNeedsEntryIds() throws Exception {
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/api/entries/batch/return")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content(jsonBatchReturnDto.write(new BatchReturnDto()).getJson())
+                        .contentType(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(response.getContentAsString()).contains("entryIds must not be empty");
+    }
+
     @Test
     public void getExistingEntryWorks() throws Exception {
         Entry entry = testEntries.get(0);
@@ -478,7 +585,7 @@ public class EntryControllerTest {
 
         // Given
         given(entryService.findById(1L)).willReturn(entry);
-        given(entryService.save(entry)).willReturn(patchedEntry);
+        given(entryService.returnEntry(1L)).willReturn(patchedEntry);
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -491,4 +598,23 @@ public class EntryControllerTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
         assertThat(response.getContentAsString()).isEqualTo(patchedEntryJsonContent.getJson());
     }
+
+    @Test
+    public void exportEntriesWritesNewlineDelimitedJson() throws Exception {
+        // Given
+        willAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).given(entryService).exportAll(any(OutputStream.class));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                get("/api/entries/export")).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).startsWith(EntryController.NDJSON_VALUE);
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
 }
@@ -0,0 +1,116 @@
+package oop.libapp.entry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import oop.libapp.author.Author;
+import oop.libapp.book.Book;
+import oop.libapp.genre.Genre;
+import oop.libapp.register.Authority;
+import oop.libapp.register.User;
+import oop.libapp.util.KeysetRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class EntryRepositoryTest {
+
+    private static final int ENTRIES = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntryRepository entryRepository;
+
+    private Statistics statistics;
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Before
+    public void setup() {
+        Authority authority = entityManager.persist(new Authority("ROLE_USER"));
+        for (int i = 0; i < ENTRIES; i++) {
+            Author author = entityManager.persist(new Author("Author " + i, "Description " + i));
+            Author coAuthor = entityManager.persist(new Author("Co-author " + i, "Description " + i));
+            Genre genre = entityManager.persist(new Genre("Genre " + i, "Description " + i));
+            Book book = entityManager.persist(new Book("Title " + i,
+                    new HashSet<>(Arrays.asList(author, coAuthor)), Collections.singletonList(genre)));
+
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPassword("password");
+            user.setAuthorities(new HashSet<>(Collections.singletonList(authority)));
+            entityManager.persist(user);
+
+            entityManager.persist(new Entry(book, user));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        SessionFactory sessionFactory = entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    public void entryPageIsSerializedWithConstantQueries() throws Exception {
+        // When
+        List<Entry> entries = entryRepository.findAllByIdGreaterThanOrderByIdAsc(0L, KeysetRequest.first().toPageable());
+        objectMapper.writeValueAsString(entries);
+
+        // Then
+        // The page with its books, book infos and users, then one batch each for
+        // the authors, genres and authorities
+        assertThat(entries).hasSize(ENTRIES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void entryPageByBookTitleIsSerializedWithConstantQueries() throws Exception {
+        // When
+        List<Entry> entries = entryRepository.findAllByBookTitleLikeAndIdGreaterThan("%Title%", 0L,
+                KeysetRequest.first().toPageable());
+        objectMapper.writeValueAsString(entries);
+
+        // Then
+        assertThat(entries).hasSize(ENTRIES);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void lockedEntriesAreReturnedOnlyOnce() {
+        // Given
+        List<Long> ids = entryRepository.findAllByIdGreaterThanOrderByIdAsc(0L, KeysetRequest.first().toPageable())
+                .stream().map(Entry::getId).limit(3).collect(Collectors.toList());
+
+        // When
+        List<Object[]> locked = entryRepository.findReturnStatesForUpdateByIdIn(ids);
+        int firstReturn = entryRepository.markAllReturned(ids.subList(0, 2), new Date());
+        int secondReturn = entryRepository.markAllReturned(ids, new Date());
+
+        // Then
+        assertThat(locked).extracting(row -> row[0]).containsExactlyElementsOf(ids);
+        assertThat(locked).extracting(row -> row[2]).containsOnly(false);
+        assertThat(firstReturn).isEqualTo(2);
+        assertThat(secondReturn).isEqualTo(1);
+        assertThat(entryRepository.findAllByReturnedAndIdGreaterThanOrderByIdAsc(true, 0L,
+                KeysetRequest.first().toPageable())).hasSize(3);
+    }
+}
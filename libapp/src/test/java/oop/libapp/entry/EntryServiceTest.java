@@ -0,0 +1,217 @@
+package oop.libapp.entry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import oop.libapp.author.Author;
+import oop.libapp.author.IAuthorService;
+import oop.libapp.book.Book;
+import oop.libapp.book.BookRelationIndex;
+import oop.libapp.book.BookSearchPlanner;
+import oop.libapp.book.BookService;
+import oop.libapp.book.BookTitleIndex;
+import oop.libapp.genre.Genre;
+import oop.libapp.genre.IGenreService;
+import oop.libapp.register.Authority;
+import oop.libapp.register.IUserService;
+import oop.libapp.register.User;
+import oop.libapp.util.KeysetRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({EntryService.class, EntryTimeline.class, BookService.class, BookSearchPlanner.class,
+        BookTitleIndex.class, BookRelationIndex.class, JacksonAutoConfiguration.class})
+public class EntryServiceTest {
+
+    @MockBean
+    private IUserService userService;
+
+    @MockBean
+    private IAuthorService authorService;
+
+    @MockBean
+    private IGenreService genreService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntryService entryService;
+
+    @Autowired
+    private OpenLoanRepository openLoanRepository;
+
+    @Autowired
+    private EntryTimeline entryTimeline;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User user;
+    private Book twoCopies;
+    private Book oneCopy;
+
+    @Before
+    public void setup() throws Exception {
+        Authority authority = entityManager.persist(new Authority("ROLE_USER"));
+        user = new User();
+        user.setUsername("borrower");
+        user.setPassword("password");
+        user.setAuthorities(new HashSet<>(Collections.singletonList(authority)));
+        entityManager.persist(user);
+        given(userService.findUserByUsername("borrower")).willReturn(user);
+
+        Author author = entityManager.persist(new Author("Author", "Description"));
+        Genre genre = entityManager.persist(new Genre("Genre", "Description"));
+        twoCopies = persistBook("Two copies", 2, author, genre);
+        oneCopy = persistBook("One copy", 1, author, genre);
+        entityManager.flush();
+    }
+
+    @Test
+    public void checkOutAllReportsEveryBookItCannotCheckOut() throws Exception {
+        // When
+        List<BatchItemResult> results = entryService.checkOutAll(Arrays.asList(
+                twoCopies.getId(), oneCopy.getId(), oneCopy.getId(), -1L, twoCopies.getId(), twoCopies.getId()), "borrower");
+
+        // Then
+        assertThat(results).extracting(BatchItemResult::getError).containsExactly(
+                null, null, "No copy of this book is available", "Book with this id not found",
+                null, "No copy of this book is available");
+        assertThat(availableCopies(twoCopies)).isEqualTo(0);
+        assertThat(availableCopies(oneCopy)).isEqualTo(0);
+        assertThat(openLoanRepository.findEntryIdsAfter(0L, KeysetRequest.first().toPageable())).containsExactly(
+                results.get(0).getEntryId(), results.get(1).getEntryId(), results.get(4).getEntryId());
+    }
+
+    @Test
+    public void returnAllReportsUnknownDuplicateAndReturnedEntries() throws Exception {
+        // Given
+        List<BatchItemResult> checkedOut = entryService.checkOutAll(
+                Arrays.asList(twoCopies.getId(), twoCopies.getId(), oneCopy.getId()), "borrower");
+        Long first = checkedOut.get(0).getEntryId();
+        Long second = checkedOut.get(1).getEntryId();
+        Long third = checkedOut.get(2).getEntryId();
+        entryService.returnEntry(third);
+
+        // When
+        List<BatchItemResult> results = entryService.returnAll(Arrays.asList(first, first, third, -1L));
+
+        // Then
+        assertThat(results).extracting(BatchItemResult::getError).containsExactly(
+                null, "Book from this entry was already returned",
+                "Book from this entry was already returned", "Entry with this id not found");
+        assertThat(availableCopies(twoCopies)).isEqualTo(1);
+        assertThat(availableCopies(oneCopy)).isEqualTo(1);
+        assertThat(openLoanRepository.findEntryIdsAfter(0L, KeysetRequest.first().toPageable())).containsExactly(second);
+        assertThat(entityManager.find(Entry.class, first).getReturned()).isTrue();
+    }
+
+    @Test
+    public void returnAllGivesBackSeveralCopiesOfOneBook() throws Exception {
+        // Given
+        List<BatchItemResult> checkedOut = entryService.checkOutAll(
+                Arrays.asList(twoCopies.getId(), oneCopy.getId(), twoCopies.getId()), "borrower");
+
+        // When
+        List<BatchItemResult> results = entryService.returnAll(Arrays.asList(
+                checkedOut.get(2).getEntryId(), checkedOut.get(0).getEntryId(), checkedOut.get(1).getEntryId()));
+
+        // Then
+        assertThat(results).allMatch(BatchItemResult::isSucceeded);
+        assertThat(availableCopies(twoCopies)).isEqualTo(2);
+        assertThat(availableCopies(oneCopy)).isEqualTo(1);
+        assertThat(openLoanRepository.findEntryIdsAfter(0L, KeysetRequest.first().toPageable())).isEmpty();
+    }
+
+    @Test
+    public void returnAllReportsEntriesWhoseBookHasNoCopyCheckedOut() {
+        // Given
+        // the entry was written without taking a copy, so the book has all of its copies
+        Entry entry = entityManager.persistAndFlush(new Entry(oneCopy, user));
+
+        // When
+        List<BatchItemResult> results = entryService.returnAll(Collections.singletonList(entry.getId()));
+
+        // Then
+        assertThat(results).extracting(BatchItemResult::getError).containsExactly("No copy of this book is checked out");
+        assertThat(availableCopies(oneCopy)).isEqualTo(1);
+        entityManager.clear();
+        assertThat(entityManager.find(Entry.class, entry.getId()).getReturned()).isFalse();
+    }
+
+    @Test
+    public void rolledBackCheckOutLeavesNoOpenLoanOrTimelineEntry() throws Exception {
+        // Given
+        Entry entry = entryService.checkOut(oneCopy.getId(), "borrower");
+        assertThat(openLoanRepository.existsById(entry.getId())).isTrue();
+
+        // When
+        TestTransaction.end();
+
+        // Then
+        TestTransaction.start();
+        assertThat(openLoanRepository.existsById(entry.getId())).isFalse();
+        assertThat(entryTimeline.findIdsStartedAfter(new Date(0), KeysetRequest.first())).doesNotContain(entry.getId());
+    }
+
+    @Test
+    public void exportAllWritesOneLinePerEntryInIdOrder() throws Exception {
+        // Given
+        Entry open = entityManager.persist(new Entry(twoCopies, user));
+        Entry returned = entityManager.persist(new Entry(oneCopy, user));
+        returned.returnBook();
+        entityManager.flush();
+        entityManager.clear();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        entryService.exportAll(out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(open.getId());
+        assertThat(first.get("bookTitle").asText()).isEqualTo("Two copies");
+        assertThat(first.get("username").asText()).isEqualTo("borrower");
+        assertThat(first.get("returned").asBoolean()).isFalse();
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("id").asLong()).isEqualTo(returned.getId());
+        assertThat(second.get("bookId").asLong()).isEqualTo(oneCopy.getId());
+        assertThat(second.get("returned").asBoolean()).isTrue();
+        assertThat(second.get("dateFinished").isNull()).isFalse();
+    }
+
+    private Book persistBook(String title, int copies, Author author, Genre genre) {
+        Book book = new Book(title, new HashSet<>(Collections.singletonList(author)), Collections.singletonList(genre));
+        book.setCopies(copies);
+        return entityManager.persist(book);
+    }
+
+    private int availableCopies(Book book) {
+        entityManager.clear();
+        return entityManager.find(Book.class, book.getId()).getAvailableCopies();
+    }
+}
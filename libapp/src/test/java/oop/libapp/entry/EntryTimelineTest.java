@@ -0,0 +1,149 @@
+package oop.libapp.entry;
+
+import oop.libapp.util.KeysetRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EntryTimelineTest {
+
+    @Mock
+    private EntryRepository entryRepository;
+
+    @InjectMocks
+    private EntryTimeline entryTimeline;
+
+    private long now;
+
+    @Before
+    public void setup() {
+        now = System.currentTimeMillis();
+        given(entryRepository.findIdsAndDatesStartedAfter(any(Date.class))).willReturn(Arrays.asList(
+                new Object[]{1L, hoursAgo(300)},
+                new Object[]{2L, hoursAgo(30)},
+                new Object[]{4L, hoursAgo(2)},
+                new Object[]{3L, hoursAgo(2)}
+        ));
+        given(entryRepository.findIdsAndDatesFinishedAfter(any(Date.class))).willReturn(
+                Collections.singletonList(new Object[]{1L, hoursAgo(1)}));
+        entryTimeline.rebuild();
+    }
+
+    @Test
+    public void entriesStartedAfterCutoffAreFoundInIdOrder() {
+        // When
+        List<Long> ids = entryTimeline.findIdsStartedAfter(hoursAgo(48), KeysetRequest.first());
+
+        // Then
+        assertThat(ids).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    public void entriesStartedAfterCutoffArePaged() {
+        // Given
+        entryTimeline.started(5L, new Date(now));
+
+        // When
+        List<Long> ids = entryTimeline.findIdsStartedAfter(hoursAgo(48), new KeysetRequest(2L, 1));
+
+        // Then
+        // one id more than the page size tells that another page exists
+        assertThat(ids).containsExactly(3L, 4L);
+    }
+
+    @Test
+    public void idsStartedOutOfOrderArePagedInIdOrder() {
+        // Given
+        // an entry with a later id can start in an earlier hour
+        entryTimeline.started(6L, hoursAgo(40));
+        entryTimeline.started(5L, new Date(now));
+
+        // When
+        List<Long> ids = entryTimeline.findIdsStartedAfter(hoursAgo(48), new KeysetRequest(3L, 2));
+
+        // Then
+        assertThat(ids).containsExactly(4L, 5L, 6L);
+    }
+
+    @Test
+    public void updatesDuringRebuildAreKept() {
+        // Given
+        // the checkout commits while the rebuild queries run and is missing from their results
+        given(entryRepository.findIdsAndDatesFinishedAfter(any(Date.class))).willAnswer(invocation -> {
+            entryTimeline.started(5L, new Date(now));
+            entryTimeline.returned(Collections.singletonList(2L), new Date(now));
+            return Collections.singletonList(new Object[]{1L, hoursAgo(1)});
+        });
+
+        // When
+        entryTimeline.rebuild();
+
+        // Then
+        assertThat(entryTimeline.findIdsStartedAfter(hoursAgo(48), KeysetRequest.first())).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(entryTimeline.findActivitySince(hoursAgo(1), EntryTimeline.HOUR_MS))
+                .extracting(EntryActivity::getReturned).containsExactly(1L, 1L);
+    }
+
+    @Test
+    public void rebuildPicksUpChangesMadeElsewhere() {
+        // Given
+        // another node checked entry 5 out, and entry 4 was removed from the ledger
+        given(entryRepository.findIdsAndDatesStartedAfter(any(Date.class))).willReturn(Arrays.asList(
+                new Object[]{1L, hoursAgo(300)},
+                new Object[]{2L, hoursAgo(30)},
+                new Object[]{3L, hoursAgo(2)},
+                new Object[]{5L, new Date(now)}
+        ));
+
+        // When
+        entryTimeline.rebuild();
+
+        // Then
+        assertThat(entryTimeline.findIdsStartedAfter(hoursAgo(48), KeysetRequest.first())).containsExactly(2L, 3L, 5L);
+    }
+
+    @Test
+    public void entriesRecordedTwiceAreCountedOnce() {
+        // When
+        entryTimeline.started(4L, hoursAgo(2));
+        entryTimeline.returned(Collections.singletonList(1L), hoursAgo(1));
+
+        // Then
+        List<EntryActivity> activity = entryTimeline.findActivitySince(hoursAgo(2), EntryTimeline.HOUR_MS);
+        assertThat(activity).extracting(EntryActivity::getCheckedOut).containsExactly(2L, 0L, 0L);
+        assertThat(activity).extracting(EntryActivity::getReturned).containsExactly(0L, 1L, 0L);
+    }
+
+    @Test
+    public void activityIsCountedPerPeriod() {
+        // Given
+        entryTimeline.returned(Arrays.asList(2L, 3L), new Date(now));
+
+        // When
+        List<EntryActivity> activity = entryTimeline.findActivitySince(hoursAgo(24), EntryTimeline.HOUR_MS);
+
+        // Then
+        assertThat(activity).hasSize(25);
+        assertThat(activity).extracting(EntryActivity::getCheckedOut).containsOnly(0L, 2L);
+        assertThat(activity.get(22).getCheckedOut()).isEqualTo(2);
+        assertThat(activity.get(23).getReturned()).isEqualTo(1);
+        assertThat(activity.get(24).getReturned()).isEqualTo(2);
+    }
+
+    private Date hoursAgo(int hours) {
+        return new Date(now - hours * EntryTimeline.HOUR_MS);
+    }
+}
@@ -0,0 +1,94 @@
+package oop.libapp.entry;
+
+import oop.libapp.author.Author;
+import oop.libapp.book.Book;
+import oop.libapp.genre.Genre;
+import oop.libapp.register.Authority;
+import oop.libapp.register.User;
+import oop.libapp.util.KeysetRequest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class OpenLoanRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OpenLoanRepository openLoanRepository;
+
+    private User user;
+    private Book book;
+    private List<Entry> entries = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        Authority authority = entityManager.persist(new Authority("ROLE_USER"));
+        user = new User();
+        user.setUsername("borrower");
+        user.setPassword("password");
+        user.setAuthorities(new HashSet<>(Collections.singletonList(authority)));
+        entityManager.persist(user);
+
+        Author author = entityManager.persist(new Author("Author", "Description"));
+        Genre genre = entityManager.persist(new Genre("Genre", "Description"));
+        book = entityManager.persist(new Book("Title",
+                new HashSet<>(Collections.singletonList(author)), Collections.singletonList(genre)));
+
+        for (int i = 0; i < 3; i++) {
+            entries.add(entityManager.persist(new Entry(book, user)));
+        }
+        entries.get(1).returnBook();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void reconcilingFillsOpenLoansAndDropsClosedOnes() {
+        // Given
+        // the second entry is returned, but its loan is still open
+        openLoanRepository.save(OpenLoan.of(entries.get(1)));
+        openLoanRepository.flush();
+
+        // When
+        int deleted = openLoanRepository.deleteClosed();
+        int inserted = openLoanRepository.insertMissing();
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(inserted).isEqualTo(2);
+        assertThat(openLoanRepository.findEntryIdsByUserIdAfter(user.getId(), 0L, KeysetRequest.first().toPageable()))
+                .containsExactly(entries.get(0).getId(), entries.get(2).getId());
+        assertThat(openLoanRepository.findEntryIdsByBookIdAfter(book.getId(), entries.get(0).getId(),
+                KeysetRequest.first().toPageable())).containsExactly(entries.get(2).getId());
+    }
+
+    @Test
+    public void returnedLoansAreDeleted() {
+        // Given
+        entries.forEach(entry -> openLoanRepository.save(OpenLoan.of(entry)));
+        openLoanRepository.flush();
+
+        // When
+        int deleted = openLoanRepository.deleteByEntryIdIn(Collections.singletonList(entries.get(0).getId()));
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(openLoanRepository.findEntryIdsAfter(0L, KeysetRequest.first().toPageable()))
+                .containsExactly(entries.get(1).getId(), entries.get(2).getId());
+    }
+}
@@ -5,6 +5,8 @@ import oop.libapp.exception.APIExceptionHandler;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.message.ErrorMessage;
 import oop.libapp.message.IErrorMessage;
+import oop.libapp.util.KeysetPage;
+import oop.libapp.util.KeysetRequest;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -26,6 +28,7 @@ import java.util.List;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
@@ -65,7 +68,7 @@ public class GenreControllerTest {
     @Test
     public void getEmptyGenresList() throws Exception {
         // Given
-        given(genreService.findAll()).willReturn(new ArrayList<Genre>());
+        given(genreService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(new ArrayList<Genre>()));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -88,7 +91,7 @@ public class GenreControllerTest {
         JsonContent<List<Genre>> jsonGenreContent = jsonGenres.write(genres);
 
         // Given
-        given(genreService.findAll()).willReturn(genres);
+        given(genreService.findAll(any(KeysetRequest.class))).willReturn(KeysetPage.lastPage(genres));
 
         // When
         MockHttpServletResponse response = mvc.perform(
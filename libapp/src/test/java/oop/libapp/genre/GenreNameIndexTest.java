@@ -0,0 +1,62 @@
+package oop.libapp.genre;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GenreNameIndexTest {
+
+    @Mock
+    private GenreRepository genreRepository;
+
+    @InjectMocks
+    private GenreNameIndex genreNameIndex;
+
+    @Before
+    public void setup() {
+        given(genreRepository.findAllIdsAndNames()).willReturn(Arrays.asList(
+                new Object[]{1L, "Science fiction"},
+                new Object[]{2L, "Short stories"}
+        ));
+        genreNameIndex.rebuild();
+    }
+
+    @Test
+    public void savedGenreIsFound() {
+        // When
+        genreNameIndex.put(3L, "Historical fiction");
+
+        // Then
+        assertThat(genreNameIndex.search("fiction")).containsExactly(1L, 3L);
+    }
+
+    @Test
+    public void savedNameReplacesOldOne() {
+        // When
+        genreNameIndex.put(2L, "Novellas");
+
+        // Then
+        assertThat(genreNameIndex.search("short")).isEmpty();
+        assertThat(genreNameIndex.search("novel")).containsExactly(2L);
+        assertThat(genreNameIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void removedGenreIsNotFound() {
+        // When
+        genreNameIndex.remove(1L);
+
+        // Then
+        assertThat(genreNameIndex.search("fiction")).isEmpty();
+        assertThat(genreNameIndex.size()).isEqualTo(1);
+    }
+}
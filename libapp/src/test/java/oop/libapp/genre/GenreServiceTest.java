@@ -0,0 +1,113 @@
+package oop.libapp.genre;
+
+import oop.libapp.exception.ResourceNotFoundException;
+import oop.libapp.util.CachedEntityLoader;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({GenreService.class, GenreNameIndex.class, CachedEntityLoader.class})
+public class GenreServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GenreService genreService;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    // the cache outlives the database of every test context, start without stale genres
+    @Before
+    public void setup() {
+        entityManagerFactory.getCache().evict(Genre.class);
+    }
+
+    @Test
+    public void genresAreReturnedInRequestedOrder() throws Exception {
+        // Given
+        Long fantasy = persistGenre("Fantasy");
+        Long poetry = persistGenre("Poetry");
+
+        // When
+        List<Genre> genres = genreService.findAllById(Arrays.asList(poetry, fantasy, poetry));
+
+        // Then
+        assertThat(genres).extracting(Genre::getName).containsExactly("Poetry", "Fantasy", "Poetry");
+    }
+
+    @Test
+    public void allMissingIdsAreReported() {
+        // Given
+        Long fantasy = persistGenre("Fantasy");
+
+        // When
+        Throwable thrown = catchThrowable(() -> genreService.findAllById(Arrays.asList(-1L, fantasy, -3L)));
+
+        // Then
+        assertThat(thrown).isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Genres with these ids not found: [-1, -3]");
+    }
+
+    // genres only reach the second-level cache once their transaction commits
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cachedGenresAreNotQueriedAgain() throws Exception {
+        // Given
+        Long fantasy = genreService.save(new Genre("Fantasy", "Test genre description")).getId();
+        Long poetry = genreService.save(new Genre("Poetry", "Test genre description")).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        try {
+            // When
+            List<Genre> genres = genreService.findAllById(Arrays.asList(poetry, fantasy));
+
+            // Then
+            assertThat(genres).extracting(Genre::getName).containsExactly("Poetry", "Fantasy");
+            assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(2);
+            assertThat(statistics.getQueryExecutionCount()).isZero();
+        } finally {
+            genreRepository.deleteAll();
+            entityManagerFactory.getCache().evict(Genre.class);
+        }
+    }
+
+    @Test
+    public void savedGenresAreFoundByName() {
+        // When
+        Genre saved = genreService.save(new Genre("Science fiction", "Test genre description"));
+
+        // Then
+        assertThat(genreService.findIdsByNameContaining("fiction")).containsExactly(saved.getId());
+    }
+
+    private Long persistGenre(String name) {
+        Long id = entityManager.persistAndGetId(new Genre(name, "Test genre description"), Long.class);
+        entityManager.flush();
+        entityManager.clear();
+        return id;
+    }
+}
@@ -0,0 +1,113 @@
+package oop.libapp.register;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CustomUserDetailsServiceTest {
+
+    @Mock
+    private IUserService userService;
+
+    @InjectMocks
+    private CustomUserDetailsService userDetailsService;
+
+    private User user;
+
+    @Before
+    public void setup() {
+        user = new User();
+        user.setUsername("user1");
+        user.setPassword("encoded-password");
+        user.setAuthorities(new HashSet<>(Arrays.asList(new Authority("ROLE_USER"))));
+    }
+
+    @Test
+    public void userIsLoadedOnceForRepeatedRequests() throws Exception {
+        // Given
+        given(userService.findUserByUsername("user1")).willReturn(user);
+
+        // When
+        userDetailsService.loadUserByUsername("user1");
+        UserDetails userDetails = userDetailsService.loadUserByUsername("user1");
+
+        // Then
+        verify(userService, times(1)).findUserByUsername("user1");
+        assertThat(AuthorityUtils.authorityListToSet(userDetails.getAuthorities())).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    public void erasingReturnedCredentialsKeepsCachedPassword() throws Exception {
+        // Given
+        given(userService.findUserByUsername("user1")).willReturn(user);
+
+        // When
+        ((org.springframework.security.core.userdetails.User) userDetailsService.loadUserByUsername("user1")).eraseCredentials();
+
+        // Then
+        assertThat(userDetailsService.loadUserByUsername("user1").getPassword()).isEqualTo("encoded-password");
+    }
+
+    @Test
+    public void userIsReloadedAfterUpdate() throws Exception {
+        // Given
+        given(userService.findUserByUsername("user1")).willReturn(user);
+        userDetailsService.loadUserByUsername("user1");
+
+        // When
+        userDetailsService.onUserUpdated(new UserUpdatedEvent("user1"));
+        userDetailsService.loadUserByUsername("user1");
+
+        // Then
+        verify(userService, times(2)).findUserByUsername("user1");
+    }
+
+    @Test
+    public void updateDuringLoadIsNotOverwrittenByTheLoad() throws Exception {
+        // Given
+        User updated = new User();
+        updated.setUsername("user1");
+        updated.setPassword("changed-password");
+        updated.setAuthorities(new HashSet<>(Arrays.asList(new Authority("ROLE_ADMIN"))));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch updateCommitted = new CountDownLatch(1);
+        given(userService.findUserByUsername("user1")).willAnswer(invocation -> {
+            loading.countDown();
+            updateCommitted.await();
+            return user;
+        }).willReturn(updated);
+        Thread load = new Thread(() -> userDetailsService.loadUserByUsername("user1"));
+        load.start();
+        loading.await();
+
+        // When
+        // the load has read the old row when the update commits
+        Thread invalidate = new Thread(() -> userDetailsService.onUserUpdated(new UserUpdatedEvent("user1")));
+        invalidate.start();
+        // the invalidation waits for the load in flight, give it the chance to run ahead of it
+        invalidate.join(200);
+        updateCommitted.countDown();
+        load.join();
+        invalidate.join();
+
+        // Then
+        UserDetails userDetails = userDetailsService.loadUserByUsername("user1");
+        assertThat(userDetails.getPassword()).isEqualTo("changed-password");
+        assertThat(AuthorityUtils.authorityListToSet(userDetails.getAuthorities())).containsExactly("ROLE_ADMIN");
+    }
+}
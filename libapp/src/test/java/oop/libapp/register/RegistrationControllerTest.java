@@ -2,9 +2,11 @@ package oop.libapp.register;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import oop.libapp.exception.APIExceptionHandler;
+import oop.libapp.exception.MalformedCsvException;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.message.ErrorMessage;
 import oop.libapp.message.IErrorMessage;
+import oop.libapp.security.password.PasswordHashingRejectedException;
 import oop.libapp.security.secret.ISecretGenerator;
 import org.junit.Before;
 import org.junit.Test;
@@ -18,12 +20,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.Reader;
+import java.util.concurrent.CompletableFuture;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.BDDMockito.given;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -43,6 +51,9 @@ public class RegistrationControllerTest {
     @Mock
     private ISecretGenerator secretGenerator;
 
+    @Mock
+    private IUserProvisioningService userProvisioningService;
+
     @InjectMocks
     private RegistrationController registrationController;
 
@@ -142,7 +153,36 @@ public class RegistrationControllerTest {
         given(userService.findUserByUsername(newUserDto.getUsername()))
                 .willThrow(new ResourceNotFoundException("User with this username not found"));
         given(secretGenerator.generateSecret()).willReturn("my_s3cr3t_v4lu3");
-        given(userService.save(any(User.class))).willReturn(new User());
+        given(userService.saveAsync(any(User.class))).willReturn(CompletableFuture.completedFuture(new User()));
+
+        // When
+        MvcResult result = mvc.perform(
+                post("/users/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(newUserDtoJsonContent.getJson())
+                        .accept(MediaType.APPLICATION_JSON)).andReturn();
+        MockHttpServletResponse response = mvc.perform(asyncDispatch(result)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.CREATED.value());
+        assertThat(response.getContentAsString()).isEqualTo("{\"isRegistered\":true}");
+    }
+
+    @Test
+    public void registrationIsRejectedWhenHashingIsSaturated() throws Exception {
+        NewUserDto newUserDto = new NewUserDto();
+        newUserDto.setUsername("ValidUser");
+        newUserDto.setPassword("password321");
+        newUserDto.setPassword2("password321");
+
+        JsonContent<NewUserDto> newUserDtoJsonContent = jsonNewUserDto.write(newUserDto);
+
+        // Given
+        given(authorityService.findByAuthority("ROLE_USER")).willReturn(new Authority("ROLE_USER"));
+        given(userService.findUserByUsername(newUserDto.getUsername()))
+                .willThrow(new ResourceNotFoundException("User with this username not found"));
+        given(userService.saveAsync(any(User.class)))
+                .willThrow(new PasswordHashingRejectedException("Too many password operations in progress, try again later"));
 
         // When
         MockHttpServletResponse response = mvc.perform(
@@ -151,8 +191,69 @@ public class RegistrationControllerTest {
                         .content(newUserDtoJsonContent.getJson())
                         .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
 
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    public void bulkRegistrationAcceptsJsonArray() throws Exception {
+        BulkRegistrationResult bulkResult = new BulkRegistrationResult();
+        bulkResult.setRegistered(1);
+        bulkResult.addAlreadyTaken("TakenUser");
+
+        // Given
+        given(userProvisioningService.registerAll(anyList())).willReturn(bulkResult);
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/users/register/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"username\":\"NewUser\",\"password\":\"password321\"},"
+                                + "{\"username\":\"TakenUser\",\"password\":\"password321\"}]")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
         // Then
         assertThat(response.getStatus()).isEqualTo(HttpStatus.CREATED.value());
-        assertThat(response.getContentAsString()).isEqualTo("{\"isRegistered\":true}");
+        assertThat(response.getContentAsString()).contains("\"registered\":1");
+        assertThat(response.getContentAsString()).contains("\"alreadyTaken\":[\"TakenUser\"]");
+    }
+
+    @Test
+    public void bulkRegistrationPassesCsvToProvisioning() throws Exception {
+        BulkRegistrationResult bulkResult = new BulkRegistrationResult();
+        bulkResult.setRegistered(2);
+
+        // Given
+        given(userProvisioningService.registerAllFromCsv(any(Reader.class))).willReturn(bulkResult);
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/users/register/bulk")
+                        .contentType("text/csv")
+                        .content("password,username\r\npassword321,FirstUser\r\npassword321,SecondUser\r\n")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.CREATED.value());
+        assertThat(response.getContentAsString()).contains("\"registered\":2");
+    }
+
+    @Test
+    public void bulkRegistrationRejectsMalformedCsv() throws Exception {
+        // Given
+        given(userProvisioningService.registerAllFromCsv(any(Reader.class)))
+                .willThrow(new MalformedCsvException("CSV header must contain username and password columns"));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/users/register/bulk")
+                        .contentType("text/csv")
+                        .content("login,password\r\nFirstUser,password321\r\n")
+                        .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(response.getContentAsString()).contains("CSV header must contain username and password columns");
     }
 }
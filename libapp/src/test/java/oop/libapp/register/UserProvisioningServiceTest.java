@@ -0,0 +1,135 @@
+package oop.libapp.register;
+
+import oop.libapp.exception.MalformedCsvException;
+import oop.libapp.security.password.BoundedPasswordEncoder;
+import oop.libapp.security.password.IAsyncPasswordEncoder;
+import oop.libapp.security.secret.ISecretGenerator;
+import oop.libapp.security.secret.SecretGenerator;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@Import({UserProvisioningService.class, UserProvisioningServiceTest.Config.class})
+public class UserProvisioningServiceTest {
+
+    @TestConfiguration
+    static class Config {
+
+        // hashing is not under test, the plain encoder keeps the passwords readable
+        @Bean(destroyMethod = "shutdown")
+        IAsyncPasswordEncoder passwordEncoder() {
+            return new BoundedPasswordEncoder(new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    return rawPassword.toString();
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    return rawPassword.toString().equals(encodedPassword);
+                }
+            }, 2, 64);
+        }
+
+        @Bean
+        ISecretGenerator secretGenerator() {
+            return new SecretGenerator(32);
+        }
+
+        @Bean
+        LocalValidatorFactoryBean validator() {
+            return new LocalValidatorFactoryBean();
+        }
+    }
+
+    @Autowired
+    private UserProvisioningService userProvisioningService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Test
+    public void csvColumnsAreReadByHeader() throws Exception {
+        // When
+        BulkRegistrationResult result = userProvisioningService.registerAllFromCsv(new StringReader(
+                "password,username\r\npassword321,FirstUser\r\n\"pass,word\",SecondUser\r\n"));
+
+        // Then
+        assertThat(result.getRegistered()).isEqualTo(2);
+        assertThat(userRepository.findUserByUsername("FirstUser").getPassword()).isEqualTo("password321");
+        assertThat(userRepository.findUserByUsername("SecondUser").getPassword()).isEqualTo("pass,word");
+    }
+
+    @Test
+    public void rejectedRowsAreReportedPerReason() throws Exception {
+        // Given
+        userProvisioningService.registerAllFromCsv(new StringReader("username,password\r\nTakenUser,password321\r\n"));
+
+        // When
+        BulkRegistrationResult result = userProvisioningService.registerAllFromCsv(new StringReader(
+                "username,password\r\n" +
+                "FirstUser,password321\r\n" +
+                "TakenUser,password321\r\n" +
+                "FirstUser,password654\r\n" +
+                "abc,password321\r\n"));
+
+        // Then
+        assertThat(result.getRegistered()).isEqualTo(1);
+        assertThat(result.getDuplicates()).containsExactly("FirstUser");
+        assertThat(result.getAlreadyTaken()).containsExactly("TakenUser");
+        assertThat(result.getInvalid()).hasSize(1);
+        assertThat(result.getInvalid().get(0)).startsWith("row 4: username");
+        // the first row of a duplicated username wins
+        assertThat(userRepository.findUserByUsername("FirstUser").getPassword()).isEqualTo("password321");
+    }
+
+    @Test
+    public void usersBeyondOneInsertBatchShareTheDefaultAuthority() {
+        // Given
+        List<BulkUserDto> users = new ArrayList<>();
+        for (int i = 0; i <= UserProvisioningService.INSERT_BATCH_SIZE; i++) {
+            users.add(new BulkUserDto("BatchUser" + i, "password321"));
+        }
+
+        // When
+        BulkRegistrationResult result = userProvisioningService.registerAll(users);
+
+        // Then
+        assertThat(result.getRegistered()).isEqualTo(UserProvisioningService.INSERT_BATCH_SIZE + 1);
+        List<User> saved = userRepository.findAll();
+        assertThat(saved).hasSize(UserProvisioningService.INSERT_BATCH_SIZE + 1);
+        assertThat(saved).allSatisfy(user -> assertThat(user.getAuthorities())
+                .extracting(Authority::getAuthority).containsExactly("ROLE_USER"));
+        assertThat(authorityRepository.count()).isEqualTo(1);
+    }
+
+    @Test(expected = MalformedCsvException.class)
+    public void recordsWithWrongFieldCountAreRejected() throws Exception {
+        // When
+        userProvisioningService.registerAllFromCsv(new StringReader("username,password\r\nFirstUser\r\n"));
+    }
+
+    @Test(expected = MalformedCsvException.class)
+    public void headerWithoutRequiredColumnsIsRejected() throws Exception {
+        // When
+        userProvisioningService.registerAllFromCsv(new StringReader("login,password\r\nFirstUser,password321\r\n"));
+    }
+}
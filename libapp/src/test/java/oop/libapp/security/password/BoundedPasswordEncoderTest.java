@@ -0,0 +1,96 @@
+package oop.libapp.security.password;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BoundedPasswordEncoderTest {
+
+    private CountDownLatch release;
+    private BoundedPasswordEncoder encoder;
+
+    @Before
+    public void setup() {
+        release = new CountDownLatch(1);
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(release), 1, 1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    public void encodingRunsOnPool() throws Exception {
+        // Given
+        release.countDown();
+
+        // When
+        String encoded = encoder.encodeAsync("secret").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(encoded).isEqualTo("encoded:secret");
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+    }
+
+    @Test(expected = PasswordHashingRejectedException.class)
+    public void workBeyondQueueCapacityIsRejected() {
+        // Given one task running and one waiting in the queue
+        encoder.encodeAsync("first");
+        encoder.encodeAsync("second");
+
+        // When
+        encoder.encodeAsync("third");
+    }
+
+    @Test
+    public void queuedWorkCompletesAfterRejection() throws Exception {
+        // Given
+        CompletableFuture<String> first = encoder.encodeAsync("first");
+        CompletableFuture<String> second = encoder.encodeAsync("second");
+        try {
+            encoder.encodeAsync("third");
+        } catch (PasswordHashingRejectedException expected) {
+            // the pool is saturated
+        }
+
+        // When
+        release.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:first");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:second");
+    }
+
+    private static class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch release;
+
+        private BlockingEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("encoded:" + rawPassword);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package oop.libapp.security.ratelimit;
+
+import oop.libapp.SpringLibraryApp;
+import oop.libapp.register.User;
+import oop.libapp.register.UserRepository;
+import oop.libapp.token.ITokenService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// the whole security filter chain, with the rate limiters replaced by ones that run out after a few requests
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {SpringLibraryApp.class, RateLimitChainTest.Limits.class})
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+public class RateLimitChainTest {
+
+    @TestConfiguration
+    static class Limits {
+
+        @Bean
+        RateLimiter rateLimiter() {
+            return new RateLimiter().addRule(HttpMethod.GET, "/api/**", 1, 0.001);
+        }
+
+        @Bean
+        RateLimiter clientRateLimiter() {
+            return new RateLimiter().addRule(null, "/api/**", 3, 0.001);
+        }
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ITokenService tokenService;
+
+    @Before
+    public void setup() {
+        // the tokens carry their authorities, only the secrets are read from the users
+        for (String username : new String[]{"first-user", "second-user"}) {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("password");
+            user.setSecret(username + "-secret");
+            user.setAuthorities(new HashSet<>());
+            userRepository.save(user);
+        }
+    }
+
+    @After
+    public void cleanup() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void usersSharingAnAddressAreLimitedOnTheirOwn() throws Exception {
+        // Given
+        String firstToken = token("first-user");
+        assertThat(getBooks("10.0.0.1", firstToken)).isEqualTo(HttpStatus.OK.value());
+        assertThat(getBooks("10.0.0.1", firstToken)).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+        // When
+        int status = getBooks("10.0.0.1", token("second-user"));
+
+        // Then
+        assertThat(status).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void requestsWithBadTokensAreLimitedPerAddressBeforeAuthentication() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThat(getBooks("10.0.0.2", "Bearer aaaa.bbbb.cccc")).isEqualTo(HttpStatus.UNAUTHORIZED.value());
+        }
+
+        // When
+        int status = getBooks("10.0.0.2", "Bearer aaaa.bbbb.cccc");
+
+        // Then
+        assertThat(status).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private String token(String username) throws Exception {
+        return "Bearer " + tokenService.generateTokenForUser(username, Collections.singletonList("ROLE_USER"));
+    }
+
+    private int getBooks(String remoteAddr, String authorization) throws Exception {
+        return mvc.perform(get("/api/books")
+                .header("Authorization", authorization)
+                .with(request -> {
+                    request.setRemoteAddr(remoteAddr);
+                    return request;
+                }))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,95 @@
+package oop.libapp.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+    private RateLimitFilter userFilter;
+
+    @Before
+    public void setup() {
+        AtomicLong clock = new AtomicLong();
+        RateLimiter rateLimiter = new RateLimiter(clock::get).addRule(HttpMethod.GET, "/api/**", 1, 0.25);
+        filter = new RateLimitFilter(rateLimiter, new ObjectMapper());
+        userFilter = new UserRateLimitFilter(rateLimiter, new ObjectMapper());
+    }
+
+    @After
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void requestOverLimitGetsTooManyRequests() throws Exception {
+        // Given
+        filter.doFilter(apiRequest("10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // When
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(apiRequest("10.0.0.1"), response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader("Retry-After")).isEqualTo("4");
+        assertThat(response.getContentAsString()).contains("Too many requests, try again later");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    public void authenticatedRequestsAreLimitedPerUserBehindAuthentication() throws Exception {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "first-user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        userFilter.doFilter(apiRequest("10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // When another user comes from the same address
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "second-user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        userFilter.doFilter(apiRequest("10.0.0.1"), response, new MockFilterChain());
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    public void requestsAreLimitedPerAddressInFrontOfAuthentication() throws Exception {
+        // Given
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "first-user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        filter.doFilter(apiRequest("10.0.0.1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        // When another user comes from the same address
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "second-user", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(apiRequest("10.0.0.1"), response, new MockFilterChain());
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private static MockHttpServletRequest apiRequest(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.setServletPath("/api/books");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,78 @@
+package oop.libapp.security.ratelimit;
+
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the per-request overhead of the rate limiter with 8 concurrent callers: the rule
+ * lookup for a request, and taking a token from a bucket shared by all threads (worst case
+ * contention on one key) or from a bucket per thread (the usual case, one key per client).
+ * The limits are high enough that no request is rejected. Average times are per thread, so on
+ * a machine with fewer than 8 cores they include the time the thread waited for a core.
+ *
+ * Run the main method with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private RateLimiter rateLimiter;
+    private RateLimitRule rule;
+    private MockHttpServletRequest request;
+
+    @State(Scope.Thread)
+    public static class Client {
+        private static final AtomicInteger counter = new AtomicInteger();
+        private final String key = "ip:10.0.0." + counter.incrementAndGet();
+    }
+
+    @Setup
+    public void setup() {
+        // the request matchers log every mismatch at debug level, the application runs at info
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+
+        rateLimiter = new RateLimiter()
+                .addRule(HttpMethod.POST, "/users/get-token", 10, 0.5)
+                .addRule(HttpMethod.POST, "/users/register", 5, 0.1)
+                .addRule(HttpMethod.GET, "/api/**", Integer.MAX_VALUE / 2, 1e9);
+        rule = rateLimiter.getRules().get(2);
+        request = new MockHttpServletRequest("GET", "/api/books");
+        request.setServletPath("/api/books");
+    }
+
+    @Benchmark
+    public RateLimitRule findRule() {
+        return rateLimiter.findRule(request);
+    }
+
+    @Benchmark
+    public long acquireSharedKey() {
+        return rule.tryAcquire("ip:10.0.0.1");
+    }
+
+    @Benchmark
+    public long acquirePerClientKey(Client client) {
+        return rule.tryAcquire(client.key);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package oop.libapp.security.ratelimit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTest {
+
+    private AtomicLong clock;
+    private RateLimiter rateLimiter;
+
+    @Before
+    public void setup() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        rateLimiter = new RateLimiter(clock::get)
+                .addRule(HttpMethod.POST, "/users/get-token", 3, 1)
+                .addRule(null, "/api/**", 100, 10);
+    }
+
+    @Test
+    public void burstUpToCapacityIsAllowed() {
+        RateLimitRule rule = rateLimiter.getRules().get(0);
+
+        // When
+        long first = rule.tryAcquire("ip:10.0.0.1");
+        long second = rule.tryAcquire("ip:10.0.0.1");
+        long third = rule.tryAcquire("ip:10.0.0.1");
+        long fourth = rule.tryAcquire("ip:10.0.0.1");
+
+        // Then
+        assertThat(first).isZero();
+        assertThat(second).isZero();
+        assertThat(third).isZero();
+        assertThat(fourth).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void bucketsRefillOverTime() {
+        RateLimitRule rule = rateLimiter.getRules().get(0);
+        for (int i = 0; i < 3; i++) {
+            rule.tryAcquire("ip:10.0.0.1");
+        }
+
+        // When
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // Then
+        assertThat(rule.tryAcquire("ip:10.0.0.1")).isZero();
+        assertThat(rule.tryAcquire("ip:10.0.0.1")).isPositive();
+    }
+
+    @Test
+    public void keysHaveSeparateBuckets() {
+        RateLimitRule rule = rateLimiter.getRules().get(0);
+        for (int i = 0; i < 3; i++) {
+            rule.tryAcquire("ip:10.0.0.1");
+        }
+
+        // Then
+        assertThat(rule.tryAcquire("ip:10.0.0.1")).isPositive();
+        assertThat(rule.tryAcquire("ip:10.0.0.2")).isZero();
+    }
+
+    @Test
+    public void firstMatchingRuleApplies() {
+        MockHttpServletRequest tokenRequest = new MockHttpServletRequest("POST", "/users/get-token");
+        tokenRequest.setServletPath("/users/get-token");
+        MockHttpServletRequest tokenGet = new MockHttpServletRequest("GET", "/users/get-token");
+        tokenGet.setServletPath("/users/get-token");
+        MockHttpServletRequest apiRequest = new MockHttpServletRequest("DELETE", "/api/books/1");
+        apiRequest.setServletPath("/api/books/1");
+
+        // Then
+        assertThat(rateLimiter.findRule(tokenRequest).getPattern()).isEqualTo("/users/get-token");
+        assertThat(rateLimiter.findRule(tokenGet)).isNull();
+        assertThat(rateLimiter.findRule(apiRequest).getPattern()).isEqualTo("/api/**");
+    }
+}
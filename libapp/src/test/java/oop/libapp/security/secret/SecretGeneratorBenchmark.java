@@ -0,0 +1,62 @@
+package oop.libapp.security.secret;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures secret generation throughput with 32 concurrent callers. The old generator filled one
+ * shared buffer without any locking, so its only correct concurrent form is the synchronized
+ * per-character variant below; it is compared with the per-thread prefetched pools of
+ * {@link SecretGenerator}.
+ *
+ * Run the main method with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class SecretGeneratorBenchmark {
+
+    private static final int SECRET_LENGTH = 32;
+
+    private final char[] allSymbols = SecretGenerator.alphaNumeric.toCharArray();
+    private final Random random = new SecureRandom();
+    private final char[] buf = new char[SECRET_LENGTH];
+
+    private SecretGenerator secretGenerator;
+
+    @Setup
+    public void setup() {
+        secretGenerator = new SecretGenerator(SECRET_LENGTH);
+    }
+
+    @Benchmark
+    public synchronized String synchronizedPerCharacter() {
+        for (int i = 0; i < buf.length; ++i) {
+            buf[i] = allSymbols[random.nextInt(allSymbols.length)];
+        }
+        return new String(buf);
+    }
+
+    @Benchmark
+    public String prefetchedPool() {
+        return secretGenerator.generateSecret();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SecretGeneratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,63 @@
+package oop.libapp.security.secret;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SecretGeneratorTest {
+
+    private static final int THREADS = 32;
+    private static final int SECRETS_PER_THREAD = 500;
+
+    @Test
+    public void secretsHaveRequestedLengthAndAlphabet() {
+        SecretGenerator generator = new SecretGenerator(32);
+
+        // When
+        String secret = generator.generateSecret();
+
+        // Then
+        assertThat(secret).hasSize(32);
+        assertThat(secret).matches("[A-Za-z0-9]+");
+    }
+
+    @Test
+    public void concurrentCallersGetDistinctWellFormedSecrets() throws Exception {
+        SecretGenerator generator = new SecretGenerator(32);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<String> secrets = ConcurrentHashMap.newKeySet();
+
+        // Given
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < SECRETS_PER_THREAD; i++) {
+                    String secret = generator.generateSecret();
+                    assertThat(secret).hasSize(32).matches("[A-Za-z0-9]+");
+                    secrets.add(secret);
+                }
+                return null;
+            }));
+        }
+
+        // When
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertThat(secrets).hasSize(THREADS * SECRETS_PER_THREAD);
+    }
+}
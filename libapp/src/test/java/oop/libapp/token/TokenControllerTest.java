@@ -17,9 +17,13 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.security.Principal;
+import java.util.Collections;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -33,6 +37,9 @@ public class TokenControllerTest {
     @Mock
     private ITokenService tokenService;
 
+    @Mock
+    private ITokenRevocationService tokenRevocationService;
+
     @InjectMocks
     private TokenController tokenController;
 
@@ -61,7 +68,7 @@ public class TokenControllerTest {
 
         // When
         MockHttpServletResponse response = mvc.perform(
-                get("/users/get-token")
+                post("/users/get-token")
                         .accept(MediaType.APPLICATION_JSON)
                         .principal(testPrincipal)).andReturn().getResponse();
 
@@ -84,12 +91,40 @@ public class TokenControllerTest {
 
         // When
         MockHttpServletResponse response = mvc.perform(
-                get("/users/get-token")
+                post("/users/get-token")
                         .accept(MediaType.APPLICATION_JSON)
                         .principal(testPrincipal)).andReturn().getResponse();
 
         // Then
         assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
-        assertThat(response.getContentAsString()).isEqualTo("{\"token\":\"this-is-a-test-token\"}");
+        assertThat(response.getContentAsString()).contains("\"token\":\"this-is-a-test-token\"");
+        assertThat(response.getContentAsString()).contains("\"isValid\":\"true\"");
+    }
+
+    @Test
+    public void tokenOfAnotherUserCannotBeRevoked() throws Exception {
+        Principal testPrincipal = new Principal() {
+            @Override
+            public String getName() {
+                return "valid-user";
+            }
+        };
+
+        // Given
+        given(tokenService.verifyToken("other-users-token"))
+                .willReturn(new VerifiedToken("other-user", Collections.emptyMap()));
+
+        // When
+        MockHttpServletResponse response = mvc.perform(
+                post("/users/revoke-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"other-users-token\"}")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .principal(testPrincipal)).andReturn().getResponse();
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+        assertThat(response.getContentAsString()).contains("Token was not issued to this user");
+        then(tokenRevocationService).should(never()).revoke(any(VerifiedToken.class));
     }
 }
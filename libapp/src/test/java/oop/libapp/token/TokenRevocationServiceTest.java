@@ -0,0 +1,84 @@
+package oop.libapp.token;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @Before
+    public void setup() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository);
+    }
+
+    @Test
+    public void tokenThatWasNeverRevokedIsCheckedWithoutQuery() {
+        // When
+        boolean revoked = tokenRevocationService.isRevoked(token("never-revoked"));
+
+        // Then
+        assertThat(revoked).isFalse();
+        then(revokedTokenRepository).should(never()).existsById(anyString());
+    }
+
+    @Test
+    public void revokedTokenIsConfirmedByRepository() {
+        VerifiedToken token = token("revoked");
+
+        // Given
+        given(revokedTokenRepository.existsById("revoked")).willReturn(true);
+
+        // When
+        tokenRevocationService.revoke(token);
+
+        // Then
+        then(revokedTokenRepository).should().save(any(RevokedToken.class));
+        assertThat(tokenRevocationService.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    public void rebuildKeepsOnlyUnexpiredRevocations() {
+        // Given
+        tokenRevocationService.revoke(token("expired"));
+        given(revokedTokenRepository.findTokenIdsExpiringAfter(any(Date.class)))
+                .willReturn(Collections.singletonList("still-valid"));
+        given(revokedTokenRepository.existsById("still-valid")).willReturn(true);
+
+        // When
+        tokenRevocationService.rebuild();
+
+        // Then
+        then(revokedTokenRepository).should().deleteExpired(any(Date.class));
+        assertThat(tokenRevocationService.isRevoked(token("expired"))).isFalse();
+        assertThat(tokenRevocationService.isRevoked(token("still-valid"))).isTrue();
+    }
+
+    private static VerifiedToken token(String tokenId) {
+        String token = JWT.create()
+                .withJWTId(tokenId)
+                .withClaim("username", "testUser")
+                .withExpiresAt(new Date(System.currentTimeMillis() + 60_000))
+                .sign(Algorithm.HMAC512("aaaabbbbccccdddd"));
+        return new VerifiedToken("testUser", JWT.decode(token).getClaims());
+    }
+}
@@ -4,16 +4,20 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import oop.libapp.exception.ResourceNotFoundException;
 import oop.libapp.register.IUserService;
+import oop.libapp.register.UserUpdatedEvent;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -126,4 +130,91 @@ public class TokenServiceTest {
         // Then
         assertThat(isTokenValid).isFalse();
     }
+
+    @Test
+    public void secretIsFetchedOnceForRepeatedValidations() throws Exception {
+        // Given
+        given(userService.findSecretByUsername("testUser")).willReturn("aaaabbbbccccdddd");
+
+        // When
+        String generatedToken = tokenService.generateTokenForUser("testUser");
+        tokenService.isValidToken(generatedToken);
+        tokenService.isValidToken(generatedToken);
+
+        // Then
+        verify(userService, times(1)).findSecretByUsername("testUser");
+    }
+
+    @Test
+    public void rotatedSecretIsPickedUpAfterUserUpdate() throws Exception {
+        // Given
+        given(userService.findSecretByUsername("testUser")).willReturn("aaaabbbbccccdddd", "eeeeffffgggghhhh");
+        String oldToken = tokenService.generateTokenForUser("testUser");
+
+        // When
+        tokenService.onUserUpdated(new UserUpdatedEvent("testUser"));
+
+        // Then
+        assertThat(tokenService.isValidToken(oldToken)).isFalse();
+        assertThat(tokenService.isValidToken(tokenService.generateTokenForUser("testUser"))).isTrue();
+    }
+
+    @Test
+    public void verifiedTokenCarriesUsernameAndClaims() throws Exception {
+        // Given
+        given(userService.findSecretByUsername("testUser")).willReturn("aaaabbbbccccdddd");
+
+        // When
+        VerifiedToken verifiedToken = tokenService.verifyToken("Bearer " + tokenService.generateTokenForUser("testUser"));
+
+        // Then
+        assertThat(verifiedToken.getUsername()).isEqualTo("testUser");
+        assertThat(verifiedToken.getClaim("iss").asString()).isEqualTo("library-app");
+    }
+
+    @Test(expected = InvalidTokenException.class)
+    public void malformedTokenIsRejected() throws Exception {
+        // When
+        tokenService.verifyToken("Bearer not-a-token");
+    }
+
+    @Test
+    public void embeddedAuthoritiesAreReturnedAfterVerification() throws Exception {
+        // Given
+        given(userService.findSecretByUsername("testUser")).willReturn("aaaabbbbccccdddd");
+
+        // When
+        String generatedToken = tokenService.generateTokenForUser("testUser", Arrays.asList("ROLE_USER", "ROLE_ADMIN"));
+        VerifiedToken verifiedToken = tokenService.verifyToken(generatedToken);
+
+        // Then
+        assertThat(verifiedToken.getAuthorities()).isEqualTo(Arrays.asList("ROLE_USER", "ROLE_ADMIN"));
+    }
+
+    @Test
+    public void tokenWithoutAuthoritiesHasNoAuthoritiesClaim() throws Exception {
+        // Given
+        given(userService.findSecretByUsername("testUser")).willReturn("aaaabbbbccccdddd");
+
+        // When
+        VerifiedToken verifiedToken = tokenService.verifyToken(tokenService.generateTokenForUser("testUser"));
+
+        // Then
+        assertThat(verifiedToken.getAuthorities()).isNull();
+    }
+
+    @Test
+    public void everyTokenGetsItsOwnId() throws Exception {
+        // Given
+        given(userService.findSecretByUsername("testUser")).willReturn("aaaabbbbccccdddd");
+
+        // When
+        VerifiedToken first = tokenService.verifyToken(tokenService.generateTokenForUser("testUser"));
+        VerifiedToken second = tokenService.verifyToken(tokenService.generateTokenForUser("testUser"));
+
+        // Then
+        assertThat(first.getTokenId()).isNotNull();
+        assertThat(first.getTokenId()).isNotEqualTo(second.getTokenId());
+        assertThat(first.getExpiresAt()).isNotNull();
+    }
 }
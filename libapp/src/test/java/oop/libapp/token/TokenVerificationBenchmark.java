@@ -0,0 +1,76 @@
+package oop.libapp.token;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import oop.libapp.register.IUserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the verification path the authentication provider used before
+ * {@link TokenService#verifyToken(String)} existed with verifyToken itself. The old path decoded
+ * the token twice and rebuilt the algorithm and verifier on every request. The secret lookup is
+ * stubbed in both cases, so the database round trip is not part of the comparison.
+ *
+ * Run the main method with the test classpath; the GC profiler reports the allocation rate per
+ * operation next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+    private static final String USERNAME = "benchmark-user";
+    private static final String SECRET = "aaaabbbbccccddddeeeeffffgggghhhh";
+
+    private TokenService tokenService;
+    private String bearerToken;
+
+    @Setup
+    public void setup() throws Exception {
+        IUserService userService = Mockito.mock(IUserService.class);
+        Mockito.when(userService.findSecretByUsername(USERNAME)).thenReturn(SECRET);
+        tokenService = new TokenService(userService);
+        bearerToken = "Bearer " + tokenService.generateTokenForUser(USERNAME);
+    }
+
+    @Benchmark
+    public boolean decodeTwiceAndRebuildVerifier() {
+        String username = tokenService.extractUsernameFromToken(bearerToken);
+        String tokenWithoutPrefix = bearerToken.substring(7);
+        try {
+            Algorithm algorithm = Algorithm.HMAC512(SECRET);
+            JWTVerifier verifier = JWT.require(algorithm)
+                    .withClaim("username", username)
+                    .withIssuer("library-app")
+                    .build();
+            verifier.verify(tokenWithoutPrefix);
+        } catch (JWTVerificationException exception) {
+            return false;
+        }
+        return true;
+    }
+
+    @Benchmark
+    public VerifiedToken verifyToken() throws InvalidTokenException {
+        return tokenService.verifyToken(bearerToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenVerificationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,42 @@
+package oop.libapp.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BloomFilterTest {
+
+    @Test
+    public void putValuesAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+
+        // Then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain("token-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearConfiguredProbability() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("token-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
@@ -0,0 +1,39 @@
+package oop.libapp.util;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvReaderTest {
+
+    @Test
+    public void plainFieldsAreSplitOnCommas() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("username,password\nstudent1,secret1\n"));
+
+        assertThat(reader.readRecord()).isEqualTo(Arrays.asList("username", "password"));
+        assertThat(reader.readRecord()).isEqualTo(Arrays.asList("student1", "secret1"));
+        assertThat(reader.readRecord()).isNull();
+        assertThat(reader.getRecordNumber()).isEqualTo(2);
+    }
+
+    @Test
+    public void quotedFieldsKeepCommasQuotesAndLineBreaks() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("\"a,b\",\"say \"\"hi\"\"\",\"two\r\nlines\"\r\n"));
+
+        assertThat(reader.readRecord()).isEqualTo(Arrays.asList("a,b", "say \"hi\"", "two\r\nlines"));
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    public void emptyFieldsAndBlankLinesAreHandled() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("a,,c\n\n,\nlast"));
+
+        assertThat(reader.readRecord()).isEqualTo(Arrays.asList("a", "", "c"));
+        assertThat(reader.readRecord()).isEqualTo(Arrays.asList("", ""));
+        assertThat(reader.readRecord()).isEqualTo(Arrays.asList("last"));
+        assertThat(reader.readRecord()).isNull();
+    }
+}
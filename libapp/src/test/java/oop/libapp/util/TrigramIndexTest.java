@@ -0,0 +1,82 @@
+package oop.libapp.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @Before
+    public void setup() {
+        index = new TrigramIndex();
+        index.put(1L, "Jorge Luis Borges");
+        index.put(2L, "Italo Calvino");
+        index.put(3L, "Ursula K. Le Guin");
+    }
+
+    @Test
+    public void substringInsideWordIsFound() {
+        assertThat(index.search("lvin")).containsExactly(2L);
+    }
+
+    @Test
+    public void searchIsCaseInsensitive() {
+        assertThat(index.search("BORGES")).containsExactly(1L);
+    }
+
+    @Test
+    public void trigramsMustBeContiguous() {
+        // "ors" and "rge" both occur in "Jorge Luis Borges", but "orsrge" does not
+        assertThat(index.search("orsrge")).isEmpty();
+    }
+
+    @Test
+    public void shortQueryFallsBackToScan() {
+        assertThat(index.search("al")).containsExactly(2L);
+    }
+
+    @Test
+    public void renamedEntryIsReindexed() {
+        // When
+        index.put(2L, "Primo Levi");
+
+        // Then
+        assertThat(index.search("calvino")).isEmpty();
+        assertThat(index.search("levi")).containsExactly(2L);
+    }
+
+    @Test
+    public void removedEntryIsNotFound() {
+        // When
+        index.remove(3L);
+
+        // Then
+        assertThat(index.search("guin")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void searchDuringRebuildSeesTheWholeIndex() {
+        // When
+        // a name is removed here while the rebuild reads the rows, which still contain it
+        index.rebuild(() -> {
+            assertThat(index.search("calvino")).containsExactly(2L);
+            index.remove(2L);
+            return Arrays.asList(
+                    new Object[]{1L, "Jorge Luis Borges"},
+                    new Object[]{2L, "Italo Calvino"},
+                    new Object[]{4L, "Julio Cortazar"}
+            );
+        });
+
+        // Then
+        assertThat(index.search("calvino")).isEmpty();
+        assertThat(index.search("cortazar")).containsExactly(4L);
+        assertThat(index.search("le guin")).isEmpty();
+    }
+}